@@ -1,49 +1,99 @@
-package Main;
-
-import app.LoginFrame;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.EntityManagerFactory;
-import jakarta.persistence.Persistence;
-import org.h2.tools.Server;
-
-import javax.swing.*;
-
-public class Main {
-    private static EntityManagerFactory emf;
-    private static EntityManager em;
-
-    public static void initializeEntityManager() {
-        emf = Persistence.createEntityManagerFactory("LibraryPU");
-        em = emf.createEntityManager();
-    }
-
-    public static EntityManager getEntityManager() {
-        return em;
-    }
-
-    public static void closeEntityManager() {
-        if (em != null && em.isOpen()) {
-            em.close();
-        }
-        if (emf != null && emf.isOpen()) {
-            emf.close();
-        }
-    }
-
-    public static void main(String[] args) {
-        try {
-            UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        initializeEntityManager();
-
-        SwingUtilities.invokeLater(() -> {
-            LoginFrame loginFrame = new LoginFrame(getEntityManager());
-            loginFrame.setVisible(true);
-        });
-
-        Runtime.getRuntime().addShutdownHook(new Thread(Main::closeEntityManager));
-    }
+package Main;
+
+import app.LoginFrame;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import manager.CacheMetrics;
+import manager.EntityManagerProvider;
+import manager.IndexVerifier;
+import manager.LibraryConfigLoader;
+import manager.ManageBook;
+import manager.ManageUser;
+import manager.MigrationRunner;
+import manager.QueryPlanMetrics;
+import manager.QueryWarmup;
+import manager.TestData;
+import org.h2.tools.Server;
+
+import javax.swing.*;
+import java.util.concurrent.ExecutionException;
+
+public class Main {
+    private static EntityManagerFactory emf;
+    private static EntityManagerProvider entityManagerProvider;
+
+    public static void initializeEntityManager() {
+        long start = System.currentTimeMillis();
+        emf = Persistence.createEntityManagerFactory("LibraryPU");
+        entityManagerProvider = new EntityManagerProvider(emf);
+        entityManagerProvider.call(em -> {
+            new MigrationRunner(em).migrate();
+            new IndexVerifier(em).verifyIndexes();
+            return null;
+        });
+        // Test data goes in before the search indexes are built, so that they include it
+        new TestData(entityManagerProvider).initializeDatabase();
+        new ManageBook(entityManagerProvider).rebuildSearchIndex();
+        new ManageUser(entityManagerProvider).rebuildEmailIndex();
+        if (LibraryConfigLoader.isLoanCounterRepairOnStartupEnabled()) {
+            int repaired = new ManageUser(entityManagerProvider).repairLoanCounters();
+            System.out.println("Recomputed loan counters of " + repaired + " users");
+        }
+        if (LibraryConfigLoader.isStartupWarmupEnabled()) {
+            entityManagerProvider.call(em -> new QueryWarmup(em).warmUp());
+        }
+        System.out.println("Startup finished in " + (System.currentTimeMillis() - start) + " ms");
+        System.out.println(new QueryPlanMetrics(emf).describe());
+    }
+
+    public static EntityManagerProvider getEntityManagerProvider() {
+        return entityManagerProvider;
+    }
+
+    public static void closeEntityManager() {
+        if (emf != null && emf.isOpen()) {
+            System.out.println(new QueryPlanMetrics(emf).describe());
+            System.out.println(new CacheMetrics(emf).describe());
+            emf.close();
+        }
+    }
+
+    public static void main(String[] args) {
+        try {
+            UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(Main::closeEntityManager));
+
+        // The login window shows right away; the database is brought up in the background meanwhile
+        SwingUtilities.invokeLater(() -> {
+            LoginFrame loginFrame = new LoginFrame();
+            loginFrame.setVisible(true);
+            startDatabase(loginFrame);
+        });
+    }
+
+    private static void startDatabase(LoginFrame loginFrame) {
+        new SwingWorker<EntityManagerProvider, Void>() {
+            @Override
+            protected EntityManagerProvider doInBackground() {
+                initializeEntityManager();
+                return getEntityManagerProvider();
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    loginFrame.setEntityManagerProvider(get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    e.getCause().printStackTrace();
+                    loginFrame.showStartupError(e.getCause());
+                }
+            }
+        }.execute();
+    }
 }
\ No newline at end of file
@@ -1,145 +1,403 @@
-package Repository;
-
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.TypedQuery;
-import jakarta.persistence.criteria.CriteriaBuilder;
-import jakarta.persistence.criteria.CriteriaQuery;
-import jakarta.persistence.criteria.Root;
-
-import java.lang.reflect.ParameterizedType;
-import java.util.List;
-import java.util.Optional;
-
-/**
- * Abstract repository class for managing generic CRUD operations on entities.
- *
- * @param <T> the type of the entity managed by this repository.
- */
-public abstract class AbstractRepo<T> {
-    protected final EntityManager entityManager;
-    protected final Class<T> entityClass;
-
-    /**
-     * Constructs a new {@code AbstractRepo} instance with the specified {@link EntityManager}.
-     *
-     * @param entityManager the EntityManager to be used for database operations.
-     */
-    @SuppressWarnings("unchecked")
-    public AbstractRepo(EntityManager entityManager) {
-        this.entityManager = entityManager;
-        this.entityClass = (Class<T>) ((ParameterizedType) getClass()
-                .getGenericSuperclass()).getActualTypeArguments()[0];
-    }
-
-    /**
-     * Saves a new entity in the database.
-     *
-     * @param entity the entity to save.
-     * @return the saved entity.
-     */
-    public T save(T entity) {
-        boolean isActive = entityManager.getTransaction().isActive();
-        if (!isActive) {
-            entityManager.getTransaction().begin();
-        }
-        try {
-            entityManager.persist(entity);
-            if (!isActive) {
-                entityManager.getTransaction().commit();
-            }
-            return entity;
-        } catch (Exception e) {
-            if (!isActive && entityManager.getTransaction().isActive()) {
-                entityManager.getTransaction().rollback();
-            }
-            throw e;
-        }
-    }
-
-    /**
-     * Updates an existing entity in the database.
-     *
-     * @param entity the entity to update.
-     * @return the updated entity.
-     */
-    public T update(T entity) {
-        boolean isActive = entityManager.getTransaction().isActive();
-        if (!isActive) {
-            entityManager.getTransaction().begin();
-        }
-        try {
-            T merged = entityManager.merge(entity);
-            if (!isActive) {
-                entityManager.getTransaction().commit();
-            }
-            return merged;
-        } catch (Exception e) {
-            if (!isActive && entityManager.getTransaction().isActive()) {
-                entityManager.getTransaction().rollback();
-            }
-            throw e;
-        }
-    }
-
-    /**
-     * Finds an entity by its ID.
-     *
-     * @param id the ID of the entity.
-     * @return an {@link Optional} containing the entity if found, or empty otherwise.
-     */
-    public Optional<T> findById(Integer id) {
-        return Optional.ofNullable(entityManager.find(entityClass, id));
-    }
-
-    /**
-     * Retrieves all entities of the type managed by this repository.
-     *
-     * @return a list of all entities.
-     */
-    public List<T> findAll() {
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<T> cq = cb.createQuery(entityClass);
-        Root<T> rootEntry = cq.from(entityClass);
-        CriteriaQuery<T> all = cq.select(rootEntry);
-        TypedQuery<T> allQuery = entityManager.createQuery(all);
-        return allQuery.getResultList();
-    }
-
-    /**
-     * Deletes an entity from the database.
-     *
-     * @param entity the entity to delete.
-     */
-    public void delete(T entity) {
-        boolean isActive = entityManager.getTransaction().isActive();
-        if (!isActive) {
-            entityManager.getTransaction().begin();
-        }
-        try {
-            entityManager.remove(entityManager.contains(entity) ? entity : entityManager.merge(entity));
-            if (!isActive) {
-                entityManager.getTransaction().commit();
-            }
-        } catch (Exception e) {
-            if (!isActive && entityManager.getTransaction().isActive()) {
-                entityManager.getTransaction().rollback();
-            }
-            throw e;
-        }
-    }
-
-    /**
-     * Deletes an entity by its ID.
-     *
-     * @param id the ID of the entity to delete.
-     * @return {@code true} if the entity was deleted, {@code false} otherwise.
-     */
-    public boolean deleteById(Integer id) {
-        Optional<T> entity = findById(id);
-        if (entity.isPresent()) {
-            delete(entity.get());
-            return true;
-        }
-        return false;
-    }
-}
+package Repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+
+import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Abstract repository class for managing generic CRUD operations on entities.
+ *
+ * @param <T> the type of the entity managed by this repository.
+ */
+public abstract class AbstractRepo<T> {
+    /**
+     * Number of entities written between flushes when no {@code hibernate.jdbc.batch_size} is configured.
+     */
+    protected static final int DEFAULT_BATCH_SIZE = 50;
+
+    /**
+     * Number of rows the JDBC driver fetches per round trip when streaming results.
+     */
+    protected static final int DEFAULT_FETCH_SIZE = 500;
+
+    /**
+     * Maximum number of IDs bound to one {@code IN} list; longer ID lists are queried in chunks of this size.
+     */
+    protected static final int MAX_IDS_PER_QUERY = 1000;
+
+    protected final EntityManager entityManager;
+    protected final Class<T> entityClass;
+
+    /**
+     * Constructs a new {@code AbstractRepo} instance with the specified {@link EntityManager}.
+     *
+     * @param entityManager the EntityManager to be used for database operations.
+     */
+    @SuppressWarnings("unchecked")
+    public AbstractRepo(EntityManager entityManager) {
+        this.entityManager = entityManager;
+        this.entityClass = (Class<T>) ((ParameterizedType) getClass()
+                .getGenericSuperclass()).getActualTypeArguments()[0];
+    }
+
+    /**
+     * Saves a new entity in the database.
+     *
+     * @param entity the entity to save.
+     * @return the saved entity.
+     */
+    public T save(T entity) {
+        boolean isActive = entityManager.getTransaction().isActive();
+        if (!isActive) {
+            entityManager.getTransaction().begin();
+        }
+        try {
+            entityManager.persist(entity);
+            if (!isActive) {
+                entityManager.getTransaction().commit();
+            }
+            return entity;
+        } catch (Exception e) {
+            if (!isActive && entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Updates an existing entity in the database.
+     *
+     * @param entity the entity to update.
+     * @return the updated entity.
+     */
+    public T update(T entity) {
+        boolean isActive = entityManager.getTransaction().isActive();
+        if (!isActive) {
+            entityManager.getTransaction().begin();
+        }
+        try {
+            T merged = entityManager.merge(entity);
+            if (!isActive) {
+                entityManager.getTransaction().commit();
+            }
+            return merged;
+        } catch (Exception e) {
+            if (!isActive && entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Saves a collection of new entities in a single transaction.
+     * The persistence context is flushed every {@link #getBatchSize()} entities so that Hibernate
+     * can group the inserts into JDBC batches, and each flushed chunk is detached to keep memory flat.
+     *
+     * @param entities the entities to save.
+     * @return the saved entities, detached from the persistence context.
+     */
+    public List<T> saveAll(Collection<T> entities) {
+        return writeInBatches(entities, entity -> {
+            entityManager.persist(entity);
+            return entity;
+        });
+    }
+
+    /**
+     * Updates a collection of existing entities in a single transaction, flushing in JDBC batches.
+     *
+     * @param entities the entities to update.
+     * @return the updated entities, detached from the persistence context.
+     */
+    public List<T> updateAll(Collection<T> entities) {
+        return writeInBatches(entities, entityManager::merge);
+    }
+
+    /**
+     * Applies a write operation to every entity, flushing and detaching after each full batch.
+     * Only the entities written here are detached, so other managed entities are left untouched.
+     *
+     * @param entities the entities to write.
+     * @param operation the persist or merge operation to apply.
+     * @return the managed results of the operation, detached after their batch was flushed.
+     */
+    private List<T> writeInBatches(Collection<T> entities, UnaryOperator<T> operation) {
+        int batchSize = getBatchSize();
+        List<T> written = new ArrayList<>(entities.size());
+        List<T> pending = new ArrayList<>(batchSize);
+
+        boolean isActive = entityManager.getTransaction().isActive();
+        if (!isActive) {
+            entityManager.getTransaction().begin();
+        }
+        try {
+            for (T entity : entities) {
+                pending.add(operation.apply(entity));
+                if (pending.size() == batchSize) {
+                    flushAndDetach(pending);
+                    written.addAll(pending);
+                    pending.clear();
+                }
+            }
+            flushAndDetach(pending);
+            written.addAll(pending);
+            if (!isActive) {
+                entityManager.getTransaction().commit();
+            }
+            return written;
+        } catch (Exception e) {
+            if (!isActive && entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            throw e;
+        }
+    }
+
+    private void flushAndDetach(List<T> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        for (T entity : batch) {
+            entityManager.detach(entity);
+        }
+    }
+
+    /**
+     * Returns the number of entities written between flushes, taken from the
+     * {@code hibernate.jdbc.batch_size} setting of the persistence unit.
+     *
+     * @return the batch size used by {@link #saveAll(Collection)} and {@link #updateAll(Collection)}.
+     */
+    protected int getBatchSize() {
+        Object configured = entityManager.getEntityManagerFactory().getProperties().get("hibernate.jdbc.batch_size");
+        if (configured != null) {
+            try {
+                int batchSize = Integer.parseInt(configured.toString().trim());
+                if (batchSize > 0) {
+                    return batchSize;
+                }
+            } catch (NumberFormatException ignored) {
+                // fall back to the default below
+            }
+        }
+        return DEFAULT_BATCH_SIZE;
+    }
+
+    /**
+     * Finds an entity by its ID.
+     *
+     * @param id the ID of the entity.
+     * @return an {@link Optional} containing the entity if found, or empty otherwise.
+     */
+    public Optional<T> findById(Integer id) {
+        return Optional.ofNullable(entityManager.find(entityClass, id));
+    }
+
+    /**
+     * Retrieves all entities of the type managed by this repository.
+     *
+     * @return a list of all entities.
+     */
+    public List<T> findAll() {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> cq = cb.createQuery(entityClass);
+        Root<T> rootEntry = cq.from(entityClass);
+        CriteriaQuery<T> all = cq.select(rootEntry);
+        TypedQuery<T> allQuery = entityManager.createQuery(all);
+        return allQuery.getResultList();
+    }
+
+    /**
+     * Streams all entities of the type managed by this repository without materializing them in a list.
+     * The stream must be closed by the caller, preferably with try-with-resources.
+     *
+     * @return a stream of all entities, each detached as it is emitted.
+     * @see #streamAll(int)
+     */
+    public Stream<T> streamAll() {
+        return streamAll(DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * Streams all entities of the type managed by this repository, reading {@code fetchSize} rows per round trip.
+     * Entities are loaded read-only and detached as they are emitted, so the persistence context does not grow;
+     * associations that the streaming query does not fetch cannot be navigated on the returned entities.
+     * A transaction is opened for the lifetime of the stream if none is active, and committed when it is closed,
+     * so the stream must be closed by the caller, preferably with try-with-resources.
+     *
+     * @param fetchSize the number of rows fetched from the database per round trip.
+     * @return a stream of all entities, each detached as it is emitted.
+     */
+    public Stream<T> streamAll(int fetchSize) {
+        TypedQuery<T> query = createStreamingQuery(fetchSize);
+        boolean isActive = entityManager.getTransaction().isActive();
+        if (!isActive) {
+            entityManager.getTransaction().begin();
+        }
+        try {
+            return query.getResultStream()
+                    .map(entity -> {
+                        entityManager.detach(entity);
+                        return entity;
+                    })
+                    .onClose(() -> {
+                        if (!isActive && entityManager.getTransaction().isActive()) {
+                            entityManager.getTransaction().commit();
+                        }
+                    });
+        } catch (Exception e) {
+            if (!isActive && entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Processes all entities of the type managed by this repository in chunks of {@code fetchSize}.
+     * Entities are loaded read-only and stay managed while the consumer handles their chunk, so lazy associations
+     * can still be loaded, and the whole chunk is detached afterwards to keep memory use constant.
+     * The chunks are read within one transaction so the open cursor survives queries issued by the consumer.
+     *
+     * @param fetchSize the number of entities per chunk and rows fetched per round trip.
+     * @param consumer the action to perform on each chunk.
+     */
+    public void forEachChunk(int fetchSize, Consumer<List<T>> consumer) {
+        TypedQuery<T> query = createStreamingQuery(fetchSize);
+        List<T> chunk = new ArrayList<>(fetchSize);
+        boolean isActive = entityManager.getTransaction().isActive();
+        if (!isActive) {
+            entityManager.getTransaction().begin();
+        }
+        try {
+            try (Stream<T> stream = query.getResultStream()) {
+                stream.forEach(entity -> {
+                    chunk.add(entity);
+                    if (chunk.size() == fetchSize) {
+                        consumeAndDetach(chunk, consumer);
+                    }
+                });
+            }
+            if (!chunk.isEmpty()) {
+                consumeAndDetach(chunk, consumer);
+            }
+            if (!isActive) {
+                entityManager.getTransaction().commit();
+            }
+        } catch (Exception e) {
+            if (!isActive && entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            throw e;
+        }
+    }
+
+    private void consumeAndDetach(List<T> chunk, Consumer<List<T>> consumer) {
+        consumer.accept(List.copyOf(chunk));
+        for (T entity : chunk) {
+            entityManager.detach(entity);
+        }
+        chunk.clear();
+    }
+
+    /**
+     * Builds the read-only query used by {@link #streamAll(int)} and {@link #forEachChunk(int, Consumer)}.
+     * Subclasses may override {@link #createStreamQuery()} to fetch to-one associations along with each row;
+     * collection fetches must be avoided because they break the one-row-per-entity streaming.
+     *
+     * @param fetchSize the number of rows fetched from the database per round trip.
+     * @return the configured query.
+     */
+    private TypedQuery<T> createStreamingQuery(int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("Fetch size must be positive: " + fetchSize);
+        }
+        return createStreamQuery()
+                .setHint("org.hibernate.fetchSize", fetchSize)
+                .setHint("org.hibernate.readOnly", true);
+    }
+
+    /**
+     * Creates the query that selects every entity for streaming.
+     *
+     * @return a query selecting all entities of the type managed by this repository.
+     */
+    protected TypedQuery<T> createStreamQuery() {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> cq = cb.createQuery(entityClass);
+        Root<T> rootEntry = cq.from(entityClass);
+        return entityManager.createQuery(cq.select(rootEntry));
+    }
+
+    /**
+     * Deletes an entity from the database.
+     *
+     * @param entity the entity to delete.
+     */
+    public void delete(T entity) {
+        boolean isActive = entityManager.getTransaction().isActive();
+        if (!isActive) {
+            entityManager.getTransaction().begin();
+        }
+        try {
+            entityManager.remove(entityManager.contains(entity) ? entity : entityManager.merge(entity));
+            if (!isActive) {
+                entityManager.getTransaction().commit();
+            }
+        } catch (Exception e) {
+            if (!isActive && entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Deletes an entity by its ID.
+     *
+     * @param id the ID of the entity to delete.
+     * @return {@code true} if the entity was deleted, {@code false} otherwise.
+     */
+    public boolean deleteById(Integer id) {
+        Optional<T> entity = findById(id);
+        if (entity.isPresent()) {
+            delete(entity.get());
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Orders rows looked up by ID in the order of the given IDs, skipping IDs without a row.
+     *
+     * @param ids  the IDs in the order wanted.
+     * @param byId the rows found, keyed by their ID.
+     * @param <R>  the type of the rows.
+     * @return the rows found, in the order of {@code ids}.
+     */
+    protected static <R> List<R> inIdOrder(List<Integer> ids, Map<Integer, R> byId) {
+        List<R> ordered = new ArrayList<>(byId.size());
+        for (Integer id : ids) {
+            R row = byId.get(id);
+            if (row != null) {
+                ordered.add(row);
+            }
+        }
+        return ordered;
+    }
+}
@@ -1,148 +1,316 @@
-package Repository;
-
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.NoResultException;
-import jakarta.persistence.TypedQuery;
-import table.Book;
-
-import java.util.List;
-import java.util.Optional;
-
-/**
- * Repository class for managing {@link Book} entities.
- * Provides methods for performing database operations related to books.
- */
-public class BookRepo extends AbstractRepo<Book> {
-
-    /**
-     * Constructs a {@code BookRepo} with the specified {@link EntityManager}.
-     *
-     * @param entityManager the {@link EntityManager} to be used for database operations.
-     */
-    public BookRepo(EntityManager entityManager) {
-        super(entityManager);
-    }
-
-    /**
-     * Retrieves all books, including their publishers and copies, with distinct results.
-     *
-     * @return a list of all books in the database.
-     */
-    @Override
-    public List<Book> findAll() {
-        return entityManager.createQuery(
-                        "SELECT DISTINCT b FROM Book b " +
-                                "LEFT JOIN FETCH b.publisher " +
-                                "LEFT JOIN FETCH b.copies", Book.class)
-                .getResultList();
-    }
-
-    /**
-     * Finds a book by its ISBN.
-     *
-     * @param isbn the ISBN of the book to find.
-     * @return an {@link Optional} containing the book if found, or empty otherwise.
-     */
-    public Optional<Book> findByIsbn(String isbn) {
-        TypedQuery<Book> query = entityManager.createQuery(
-                "SELECT DISTINCT b FROM Book b " +
-                        "LEFT JOIN FETCH b.publisher " +
-                        "LEFT JOIN FETCH b.copies " +
-                        "WHERE b.isbn = :isbn", Book.class);
-        query.setParameter("isbn", isbn);
-        try {
-            return Optional.of(query.getSingleResult());
-        } catch (NoResultException e) {
-            return Optional.empty();
-        }
-    }
-
-    /**
-     * Finds books by their title, with a case-insensitive search.
-     *
-     * @param title the title or partial title of the books to find.
-     * @return a list of books matching the given title.
-     */
-    public List<Book> findByTitle(String title) {
-        TypedQuery<Book> query = entityManager.createQuery(
-                "SELECT DISTINCT b FROM Book b " +
-                        "LEFT JOIN FETCH b.publisher " +
-                        "LEFT JOIN FETCH b.copies " +
-                        "WHERE LOWER(b.title) LIKE LOWER(:title)", Book.class);
-        query.setParameter("title", "%" + title + "%");
-        return query.getResultList();
-    }
-
-    /**
-     * Retrieves all books that have at least one available copy.
-     *
-     * @return a list of books with available copies.
-     */
-    public List<Book> findAvailableBooks() {
-        return entityManager.createQuery(
-                        "SELECT DISTINCT b FROM Book b " +
-                                "LEFT JOIN FETCH b.publisher " +
-                                "JOIN FETCH b.copies c " +
-                                "WHERE c.status = 'Available'", Book.class)
-                .getResultList();
-    }
-
-    /**
-     * Retrieves all books ordered by their title.
-     *
-     * @return a list of books ordered alphabetically by title.
-     */
-    public List<Book> findAllOrderByTitle() {
-        return entityManager.createQuery(
-                        "SELECT DISTINCT b FROM Book b " +
-                                "LEFT JOIN FETCH b.publisher " +
-                                "LEFT JOIN FETCH b.copies " +
-                                "ORDER BY b.title", Book.class)
-                .getResultList();
-    }
-
-    /**
-     * Retrieves all books with at least one available copy.
-     *
-     * @return a list of books with available copies.
-     */
-    public List<Book> findBooksWithAvailableCopies() {
-        return entityManager.createQuery(
-                        "SELECT DISTINCT b FROM Book b " +
-                                "LEFT JOIN FETCH b.publisher " +
-                                "JOIN FETCH b.copies c " +
-                                "WHERE c.status = 'Available'", Book.class)
-                .getResultList();
-    }
-
-    /**
-     * Saves a book along with its publisher. If the publisher is new, it is also persisted.
-     *
-     * @param book the book to save.
-     * @return the saved book with updated relationships.
-     */
-    public Book saveWithPublisher(Book book) {
-        entityManager.getTransaction().begin();
-        try {
-            if (book.getPublisher() != null && book.getPublisher().getId() == null) {
-                entityManager.persist(book.getPublisher());
-            }
-
-            if (book.getId() == null) {
-                entityManager.persist(book);
-            } else {
-                book = entityManager.merge(book);
-            }
-
-            entityManager.getTransaction().commit();
-            entityManager.refresh(book);
-            return book;
-
-        } catch (Exception e) {
-            if (entityManager.getTransaction().isActive()) {
-                entityManager.getTransaction().rollback();
-            }
-            throw e;
-        }
-    }
-}
+package Repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.NoResultException;
+import jakarta.persistence.TypedQuery;
+import table.Book;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Repository class for managing {@link Book} entities.
+ * Provides methods for performing database operations related to books.
+ */
+public class BookRepo extends AbstractRepo<Book> {
+    /**
+     * Constructs a {@code BookRepo} with the specified {@link EntityManager}.
+     *
+     * @param entityManager the {@link EntityManager} to be used for database operations.
+     */
+    public BookRepo(EntityManager entityManager) {
+        super(entityManager);
+    }
+
+    /**
+     * Retrieves all books, including their publishers and copies, with distinct results.
+     *
+     * @return a list of all books in the database.
+     */
+    @Override
+    public List<Book> findAll() {
+        return entityManager.createNamedQuery("Book.findAll", Book.class)
+                .getResultList();
+    }
+
+    /**
+     * Streams books together with their publishers, one row per book.
+     * Copies are not fetched, as a collection fetch would repeat each book once per copy.
+     *
+     * @return a query selecting all books with their publishers, ordered by ID.
+     */
+    @Override
+    protected TypedQuery<Book> createStreamQuery() {
+        return entityManager.createNamedQuery("Book.stream", Book.class);
+    }
+
+    /**
+     * Finds a book by its ISBN.
+     *
+     * @param isbn the ISBN of the book to find.
+     * @return an {@link Optional} containing the book if found, or empty otherwise.
+     */
+    public Optional<Book> findByIsbn(String isbn) {
+        TypedQuery<Book> query = entityManager.createNamedQuery("Book.findByIsbn", Book.class);
+        query.setParameter("isbn", isbn);
+        try {
+            return Optional.of(query.getSingleResult());
+        } catch (NoResultException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Finds books by their title, with a case-insensitive search.
+     *
+     * @param title the title or partial title of the books to find.
+     * @return a list of books matching the given title.
+     */
+    public List<Book> findByTitle(String title) {
+        TypedQuery<Book> query = entityManager.createNamedQuery("Book.findByTitle", Book.class);
+        query.setParameter("title", "%" + title + "%");
+        return query.getResultList();
+    }
+
+    /**
+     * Finds books by their IDs, including their publishers and copies, returned in the order of the given IDs.
+     * IDs without a matching book are skipped.
+     *
+     * @param ids the IDs of the books to find.
+     * @return a list of the books found, in the order of {@code ids}.
+     */
+    public List<Book> findByIds(List<Integer> ids) {
+        Map<Integer, Book> booksById = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + MAX_IDS_PER_QUERY, ids.size()));
+            entityManager.createNamedQuery("Book.findByIds", Book.class)
+                    .setParameter("ids", chunk)
+                    .getResultList()
+                    .forEach(book -> booksById.put(book.getId(), book));
+        }
+        return inIdOrder(ids, booksById);
+    }
+
+    /**
+     * Retrieves all books that have at least one available copy.
+     *
+     * @return a list of books with available copies.
+     */
+    public List<Book> findAvailableBooks() {
+        return entityManager.createNamedQuery("Book.findAvailable", Book.class)
+                .getResultList();
+    }
+
+    /**
+     * Retrieves all books ordered by their title.
+     *
+     * @return a list of books ordered alphabetically by title.
+     */
+    public List<Book> findAllOrderByTitle() {
+        return entityManager.createNamedQuery("Book.findAllOrderByTitle", Book.class)
+                .getResultList();
+    }
+
+    /**
+     * Retrieves all books with at least one available copy.
+     *
+     * @return a list of books with available copies.
+     */
+    public List<Book> findBooksWithAvailableCopies() {
+        return entityManager.createNamedQuery("Book.findAvailable", Book.class)
+                .getResultList();
+    }
+
+    /**
+     * Retrieves a summary of every book, ordered by title, with its publisher name and copy counts.
+     * All counts are computed by one aggregate query instead of one query per book.
+     *
+     * @return a list of book summaries.
+     */
+    public List<BookSummary> findSummaries() {
+        return entityManager.createNamedQuery("Book.findSummaries", BookSummary.class)
+                .getResultList();
+    }
+
+    /**
+     * Retrieves a summary of every book whose title matches the search term, ordered by title.
+     *
+     * @param title the title or partial title of the books to find.
+     * @return a list of summaries of the matching books.
+     */
+    public List<BookSummary> findSummariesByTitle(String title) {
+        return entityManager.createNamedQuery("Book.findSummariesByTitle", BookSummary.class)
+                .setParameter("title", "%" + title + "%")
+                .getResultList();
+    }
+
+    /**
+     * Retrieves the summaries of the books with the given IDs, returned in the order of the given IDs.
+     *
+     * @param ids the IDs of the books to summarize.
+     * @return a list of summaries of the books found, in the order of {@code ids}.
+     */
+    public List<BookSummary> findSummariesByIds(List<Integer> ids) {
+        Map<Integer, BookSummary> summariesById = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + MAX_IDS_PER_QUERY, ids.size()));
+            entityManager.createNamedQuery("Book.findSummariesByIds", BookSummary.class)
+                    .setParameter("ids", chunk)
+                    .getResultList()
+                    .forEach(summary -> summariesById.put(summary.id(), summary));
+        }
+        return inIdOrder(ids, summariesById);
+    }
+
+    /**
+     * Retrieves one page of all books, ordered by title and ID, starting after the given keyset position.
+     * The cost of a page does not depend on how far into the catalog it lies.
+     *
+     * @param afterTitle the title of the last book on the previous page, or {@code null} for the first page.
+     * @param afterId the ID of the last book on the previous page, or {@code null} for the first page.
+     * @param limit the maximum number of books to return.
+     * @return the books of the requested page, with their publishers.
+     */
+    public List<Book> findPage(String afterTitle, Integer afterId, int limit) {
+        return findPage("Book.findPage", Book.class, Map.of(), afterTitle, afterId, limit);
+    }
+
+    /**
+     * Retrieves one page of books whose title matches the search term, ordered by title and ID.
+     *
+     * @param title the title or partial title of the books to find.
+     * @param afterTitle the title of the last book on the previous page, or {@code null} for the first page.
+     * @param afterId the ID of the last book on the previous page, or {@code null} for the first page.
+     * @param limit the maximum number of books to return.
+     * @return the matching books of the requested page, with their publishers.
+     */
+    public List<Book> findByTitlePage(String title, String afterTitle, Integer afterId, int limit) {
+        return findPage("Book.findByTitlePage", Book.class, Map.of("title", "%" + title + "%"), afterTitle, afterId, limit);
+    }
+
+    /**
+     * Retrieves one page of books with at least one available copy, ordered by title and ID.
+     *
+     * @param afterTitle the title of the last book on the previous page, or {@code null} for the first page.
+     * @param afterId the ID of the last book on the previous page, or {@code null} for the first page.
+     * @param limit the maximum number of books to return.
+     * @return the books of the requested page that have available copies, with their publishers.
+     */
+    public List<Book> findAvailableBooksPage(String afterTitle, Integer afterId, int limit) {
+        return findPage("Book.findAvailablePage", Book.class, Map.of(), afterTitle, afterId, limit);
+    }
+
+    /**
+     * Retrieves one page of book summaries, ordered by title and ID, starting after the given keyset position.
+     *
+     * @param afterTitle the title of the last book on the previous page, or {@code null} for the first page.
+     * @param afterId the ID of the last book on the previous page, or {@code null} for the first page.
+     * @param limit the maximum number of summaries to return.
+     * @return the summaries of the books of the requested page.
+     */
+    public List<BookSummary> findSummaryPage(String afterTitle, Integer afterId, int limit) {
+        return findPage("Book.findSummaryPage", BookSummary.class, Map.of(), afterTitle, afterId, limit);
+    }
+
+    /**
+     * Retrieves the page of book summaries starting at the given position, ordered by title and ID.
+     * Unlike {@link #findSummaryPage(String, Integer, int)} the database has to skip over the preceding rows,
+     * so this is only meant for jumping to a position whose previous page is not known.
+     *
+     * @param offset the position of the first summary to return.
+     * @param limit the maximum number of summaries to return.
+     * @return the summaries of the books of the requested page.
+     */
+    public List<BookSummary> findSummaryPageAt(int offset, int limit) {
+        if (offset < 0 || limit <= 0) {
+            throw new IllegalArgumentException("Invalid page: offset " + offset + ", limit " + limit);
+        }
+        return entityManager.createNamedQuery("Book.findSummaryPage", BookSummary.class)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Counts all books.
+     *
+     * @return the number of books.
+     */
+    public long count() {
+        return entityManager.createNamedQuery("Book.count", Long.class).getSingleResult();
+    }
+
+    /**
+     * Gets the change stamp of the books table.
+     *
+     * @return the number of books and the latest time one was modified.
+     */
+    public ChangeStamp getChangeStamp() {
+        return entityManager.createNamedQuery("Book.changeStamp", ChangeStamp.class).getSingleResult();
+    }
+
+    /**
+     * Runs a keyset-paginated book query over the {@code (title, id)} index.
+     * Copies are not fetched, since a collection fetch would force Hibernate to paginate in memory.
+     * Every listing has a named query for the first page and one suffixed {@code After} for the following pages.
+     *
+     * @param queryName the name of the first-page query of the listing.
+     * @param type the type of the rows returned by the query.
+     * @param parameters the named parameters used by the query besides the cursor.
+     * @param afterTitle the title of the last book on the previous page, or {@code null} for the first page.
+     * @param afterId the ID of the last book on the previous page.
+     * @param limit the maximum number of books to return.
+     * @return the rows of the requested page.
+     */
+    private <T> List<T> findPage(String queryName, Class<T> type, Map<String, Object> parameters,
+                                 String afterTitle, Integer afterId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page limit must be positive: " + limit);
+        }
+        if (afterTitle != null && afterId == null) {
+            throw new IllegalArgumentException("A page cursor needs both the title and the ID of the last book");
+        }
+
+        TypedQuery<T> query = entityManager.createNamedQuery(
+                afterTitle == null ? queryName : queryName + "After", type);
+        parameters.forEach(query::setParameter);
+        if (afterTitle != null) {
+            query.setParameter("afterTitle", afterTitle);
+            query.setParameter("afterId", afterId);
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Saves a book along with its publisher. If the publisher is new, it is also persisted.
+     *
+     * @param book the book to save.
+     * @return the saved book with updated relationships.
+     */
+    public Book saveWithPublisher(Book book) {
+        entityManager.getTransaction().begin();
+        try {
+            if (book.getPublisher() != null && book.getPublisher().getId() == null) {
+                entityManager.persist(book.getPublisher());
+            }
+
+            if (book.getId() == null) {
+                entityManager.persist(book);
+            } else {
+                book = entityManager.merge(book);
+            }
+
+            entityManager.getTransaction().commit();
+            entityManager.refresh(book);
+            return book;
+
+        } catch (Exception e) {
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            throw e;
+        }
+    }
+}
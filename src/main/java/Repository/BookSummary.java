@@ -0,0 +1,18 @@
+package Repository;
+
+/**
+ * Flat, read-only view of a book as listed in the book tables, including its copy counts.
+ * Produced by a single aggregate query in {@link BookRepo}, so no {@link table.Copy} entities are loaded.
+ *
+ * @param id the ID of the book.
+ * @param title the title of the book.
+ * @param author the author of the book.
+ * @param isbn the ISBN of the book.
+ * @param publicationYear the publication year of the book.
+ * @param publisherName the name of the book's publisher, or {@code null} if it has none.
+ * @param totalCopies the total number of copies of the book.
+ * @param availableCopies the number of copies of the book that are available.
+ */
+public record BookSummary(Integer id, String title, String author, String isbn, Integer publicationYear,
+                          String publisherName, Long totalCopies, Long availableCopies) {
+}
@@ -1,76 +1,157 @@
-package Repository;
-
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.TypedQuery;
-import table.Borrowing;
-import table.User;
-
-import java.util.List;
-
-/**
- * Repository class for managing {@link Borrowing} entities.
- * Provides methods for performing database operations related to borrowings.
- */
-public class BorrowingRepo extends AbstractRepo<Borrowing> {
-
-    /**
-     * Constructs a {@code BorrowingRepo} with the specified {@link EntityManager}.
-     *
-     * @param entityManager the {@link EntityManager} to be used for database operations.
-     */
-    public BorrowingRepo(EntityManager entityManager) {
-        super(entityManager);
-    }
-
-    /**
-     * Retrieves all borrowings associated with a specific user.
-     *
-     * @param user the {@link User} whose borrowings are to be retrieved.
-     * @return a list of borrowings for the specified user.
-     */
-    public List<Borrowing> findByUser(User user) {
-        TypedQuery<Borrowing> query = entityManager.createQuery(
-                "SELECT b FROM Borrowing b WHERE b.user = :user", Borrowing.class);
-        query.setParameter("user", user);
-        return query.getResultList();
-    }
-
-    /**
-     * Retrieves all current borrowings that have not been returned yet.
-     *
-     * @return a list of current borrowings with no return date.
-     */
-    public List<Borrowing> findCurrentBorrowings() {
-        TypedQuery<Borrowing> query = entityManager.createQuery(
-                "SELECT b FROM Borrowing b WHERE b.returnDate IS NULL", Borrowing.class);
-        return query.getResultList();
-    }
-
-    /**
-     * Retrieves the borrowing history of a specific user, ordered by the borrow date in descending order.
-     *
-     * @param user the {@link User} whose borrowing history is to be retrieved.
-     * @return a list of borrowings for the specified user, ordered by borrow date.
-     */
-    public List<Borrowing> findUserBorrowingHistory(User user) {
-        return entityManager.createQuery(
-                        "SELECT b FROM Borrowing b WHERE b.user = :user ORDER BY b.borrowDate DESC",
-                        Borrowing.class)
-                .setParameter("user", user)
-                .getResultList();
-    }
-
-    /**
-     * Retrieves the current active borrowings of a specific user.
-     *
-     * @param user the {@link User} whose active borrowings are to be retrieved.
-     * @return a list of active borrowings for the specified user with no return date.
-     */
-    public List<Borrowing> findUserCurrentBorrowings(User user) {
-        return entityManager.createQuery(
-                        "SELECT b FROM Borrowing b WHERE b.user = :user AND b.returnDate IS NULL",
-                        Borrowing.class)
-                .setParameter("user", user)
-                .getResultList();
-    }
-}
+package Repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import table.Borrowing;
+import table.User;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository class for managing {@link Borrowing} entities.
+ * Provides methods for performing database operations related to borrowings.
+ * Listing queries fetch the user, copy and book of each borrowing so the results can be displayed once detached.
+ */
+public class BorrowingRepo extends AbstractRepo<Borrowing> {
+
+    /**
+     * Constructs a {@code BorrowingRepo} with the specified {@link EntityManager}.
+     *
+     * @param entityManager the {@link EntityManager} to be used for database operations.
+     */
+    public BorrowingRepo(EntityManager entityManager) {
+        super(entityManager);
+    }
+
+    /**
+     * Retrieves all borrowings associated with a specific user.
+     *
+     * @param user the {@link User} whose borrowings are to be retrieved.
+     * @return a list of borrowings for the specified user.
+     */
+    public List<Borrowing> findByUser(User user) {
+        TypedQuery<Borrowing> query = entityManager.createNamedQuery("Borrowing.findByUser", Borrowing.class);
+        query.setParameter("user", user);
+        return query.getResultList();
+    }
+
+    /**
+     * Retrieves all current borrowings that have not been returned yet.
+     *
+     * @return a list of current borrowings with no return date.
+     */
+    public List<Borrowing> findCurrentBorrowings() {
+        TypedQuery<Borrowing> query = entityManager.createNamedQuery("Borrowing.findCurrent", Borrowing.class);
+        return query.getResultList();
+    }
+
+    /**
+     * Retrieves the borrowing history of a specific user, ordered by the borrow date in descending order.
+     *
+     * @param user the {@link User} whose borrowing history is to be retrieved.
+     * @return a list of borrowings for the specified user, ordered by borrow date.
+     */
+    public List<Borrowing> findUserBorrowingHistory(User user) {
+        return entityManager.createNamedQuery("Borrowing.findUserHistory", Borrowing.class)
+                .setParameter("user", user)
+                .getResultList();
+    }
+
+    /**
+     * Retrieves the current active borrowings of a specific user.
+     *
+     * @param user the {@link User} whose active borrowings are to be retrieved.
+     * @return a list of active borrowings for the specified user with no return date.
+     */
+    public List<Borrowing> findUserCurrentBorrowings(User user) {
+        return entityManager.createNamedQuery("Borrowing.findUserCurrent", Borrowing.class)
+                .setParameter("user", user)
+                .getResultList();
+    }
+
+    /**
+     * Counts the borrowings of a user that have not been returned yet, without loading them.
+     *
+     * @param userId the ID of the user whose active borrowings are counted.
+     * @return the number of active borrowings of the user.
+     */
+    public long countUserCurrentBorrowings(Integer userId) {
+        return entityManager.createNamedQuery("Borrowing.countUserCurrent", Long.class)
+                .setParameter("userId", userId)
+                .getSingleResult();
+    }
+
+    /**
+     * Retrieves the current borrowings that were inserted or updated after the given time,
+     * or whose user or book was.
+     *
+     * @param since the time after which the borrowings were modified.
+     * @return a list of the modified current borrowings.
+     */
+    public List<Borrowing> findCurrentModifiedSince(Date since) {
+        return entityManager.createNamedQuery("Borrowing.findCurrentModifiedSince", Borrowing.class)
+                .setParameter("since", since)
+                .getResultList();
+    }
+
+    /**
+     * Retrieves one borrowing with its user, copy and book, so it can be displayed once detached.
+     *
+     * @param id the ID of the borrowing.
+     * @return an Optional containing the borrowing if it exists.
+     */
+    public Optional<Borrowing> findDetailedById(Integer id) {
+        return entityManager.createNamedQuery("Borrowing.findDetailed", Borrowing.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst();
+    }
+
+    /**
+     * Checks whether a user has any borrowings, returned or not, by reading at most one index entry.
+     *
+     * @param userId the ID of the user.
+     * @return {@code true} if the user has at least one borrowing.
+     */
+    public boolean existsByUser(Integer userId) {
+        return !entityManager.createNamedQuery("Borrowing.findAnyIdByUser", Integer.class)
+                .setParameter("userId", userId)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+
+    /**
+     * Checks whether a copy is out on a borrowing that has not been returned, by reading at most one row.
+     *
+     * @param copyId the ID of the copy.
+     * @return {@code true} if the copy has a current borrowing.
+     */
+    public boolean existsCurrentByCopy(Integer copyId) {
+        return !entityManager.createNamedQuery("Borrowing.findCurrentIdByCopy", Integer.class)
+                .setParameter("copyId", copyId)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+
+    /**
+     * Retrieves the IDs of the borrowings that have not been returned yet, without loading them.
+     *
+     * @return the set of current borrowing IDs.
+     */
+    public IdSet findCurrentIds() {
+        return IdSet.of(entityManager.createNamedQuery("Borrowing.findCurrentIds", Integer.class).getResultList());
+    }
+
+    /**
+     * Gets the change stamp of the borrowings table.
+     *
+     * @return the number of borrowings and the latest time one was modified.
+     */
+    public ChangeStamp getChangeStamp() {
+        return entityManager.createNamedQuery("Borrowing.changeStamp", ChangeStamp.class).getSingleResult();
+    }
+}
@@ -0,0 +1,14 @@
+package Repository;
+
+import java.util.Date;
+
+/**
+ * Cheap fingerprint of the rows of a table: how many there are and when the latest of them was written.
+ * Any insert or update moves the timestamp and any delete lowers the count, so a view whose stamps are unchanged
+ * since its last refresh can skip querying the rows altogether.
+ *
+ * @param count the number of rows.
+ * @param lastModified the latest last-modified timestamp of the rows, or {@code null} if there are none.
+ */
+public record ChangeStamp(long count, Date lastModified) {
+}
@@ -1,105 +1,172 @@
-package Repository;
-
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.TypedQuery;
-import table.Book;
-import table.Copy;
-
-import java.util.List;
-import java.util.Optional;
-
-/**
- * Repository class for managing {@link Copy} entities.
- * Provides methods for performing database operations related to copies of books.
- */
-public class CopyRepo extends AbstractRepo<Copy> {
-
-    /**
-     * Constructs a {@code CopyRepo} with the specified {@link EntityManager}.
-     *
-     * @param entityManager the {@link EntityManager} to be used for database operations.
-     */
-    public CopyRepo(EntityManager entityManager) {
-        super(entityManager);
-    }
-
-    /**
-     * Finds a copy by its unique ID.
-     *
-     * @param id the ID of the copy.
-     * @return an {@link Optional} containing the copy if found, otherwise empty.
-     */
-    @Override
-    public Optional<Copy> findById(Integer id) {
-        if (id == null) {
-            return Optional.empty();
-        }
-        return Optional.ofNullable(entityManager.find(Copy.class, id));
-    }
-
-    /**
-     * Finds all copies associated with a specific book.
-     *
-     * @param book the {@link Book} whose copies are to be retrieved.
-     * @return a list of copies for the specified book.
-     */
-    public List<Copy> findByBook(Book book) {
-        TypedQuery<Copy> query = entityManager.createQuery(
-                "SELECT c FROM Copy c WHERE c.book = :book", Copy.class);
-        query.setParameter("book", book);
-        return query.getResultList();
-    }
-
-    /**
-     * Finds all available copies for a specific book.
-     *
-     * @param book the {@link Book} whose available copies are to be retrieved.
-     * @return a list of available copies for the specified book.
-     */
-    public List<Copy> findAvailableCopies(Book book) {
-        TypedQuery<Copy> query = entityManager.createQuery(
-                "SELECT c FROM Copy c WHERE c.book = :book AND c.status = 'Available'", Copy.class);
-        query.setParameter("book", book);
-        return query.getResultList();
-    }
-
-    /**
-     * Counts all copies associated with a specific book.
-     *
-     * @param book the {@link Book} whose copies are to be counted.
-     * @return the total number of copies for the specified book.
-     */
-    public Long countAllCopies(Book book) {
-        return entityManager.createQuery("SELECT COUNT(c) FROM Copy c WHERE c.book = :book", Long.class)
-                .setParameter("book", book)
-                .getSingleResult();
-    }
-
-    /**
-     * Counts all available copies of a specific book.
-     *
-     * @param book the {@link Book} whose available copies are to be counted.
-     * @return the total number of available copies for the specified book.
-     */
-    public Long countAvailableCopies(Book book) {
-        return entityManager.createQuery(
-                        "SELECT COUNT(c) FROM Copy c WHERE c.book = :book AND c.status = 'Available'",
-                        Long.class)
-                .setParameter("book", book)
-                .getSingleResult();
-    }
-
-    /**
-     * Counts all borrowed copies of a specific book.
-     *
-     * @param book the {@link Book} whose borrowed copies are to be counted.
-     * @return the total number of borrowed copies for the specified book.
-     */
-    public Long countBorrowedCopies(Book book) {
-        return entityManager.createQuery(
-                        "SELECT COUNT(c) FROM Copy c WHERE c.book = :book AND c.status = 'Borrowed'",
-                        Long.class)
-                .setParameter("book", book)
-                .getSingleResult();
-    }
-}
+package Repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import table.Book;
+import table.Copy;
+import table.CopyStatus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Repository class for managing {@link Copy} entities.
+ * Provides methods for performing database operations related to copies of books.
+ */
+public class CopyRepo extends AbstractRepo<Copy> {
+    /**
+     * Constructs a {@code CopyRepo} with the specified {@link EntityManager}.
+     *
+     * @param entityManager the {@link EntityManager} to be used for database operations.
+     */
+    public CopyRepo(EntityManager entityManager) {
+        super(entityManager);
+    }
+
+    /**
+     * Finds a copy by its unique ID.
+     *
+     * @param id the ID of the copy.
+     * @return an {@link Optional} containing the copy if found, otherwise empty.
+     */
+    @Override
+    public Optional<Copy> findById(Integer id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(entityManager.find(Copy.class, id));
+    }
+
+    /**
+     * Finds all copies associated with a specific book.
+     *
+     * @param book the {@link Book} whose copies are to be retrieved.
+     * @return a list of copies for the specified book.
+     */
+    public List<Copy> findByBook(Book book) {
+        TypedQuery<Copy> query = entityManager.createNamedQuery("Copy.findByBook", Copy.class);
+        query.setParameter("book", book);
+        return query.getResultList();
+    }
+
+    /**
+     * Finds all available copies for a specific book.
+     *
+     * @param book the {@link Book} whose available copies are to be retrieved.
+     * @return a list of available copies for the specified book.
+     */
+    public List<Copy> findAvailableCopies(Book book) {
+        TypedQuery<Copy> query = entityManager.createNamedQuery("Copy.findAvailableByBook", Copy.class);
+        query.setParameter("book", book);
+        return query.getResultList();
+    }
+
+    /**
+     * Counts all copies associated with a specific book.
+     *
+     * @param book the {@link Book} whose copies are to be counted.
+     * @return the total number of copies for the specified book.
+     */
+    public Long countAllCopies(Book book) {
+        return entityManager.createNamedQuery("Copy.countByBook", Long.class)
+                .setParameter("book", book)
+                .getSingleResult();
+    }
+
+    /**
+     * Counts all available copies of a specific book.
+     *
+     * @param book the {@link Book} whose available copies are to be counted.
+     * @return the total number of available copies for the specified book.
+     */
+    public Long countAvailableCopies(Book book) {
+        return entityManager.createNamedQuery("Copy.countAvailableByBook", Long.class)
+                .setParameter("book", book)
+                .getSingleResult();
+    }
+
+    /**
+     * Counts all borrowed copies of a specific book.
+     *
+     * @param book the {@link Book} whose borrowed copies are to be counted.
+     * @return the total number of borrowed copies for the specified book.
+     */
+    public Long countBorrowedCopies(Book book) {
+        return entityManager.createNamedQuery("Copy.countBorrowedByBook", Long.class)
+                .setParameter("book", book)
+                .getSingleResult();
+    }
+
+    /**
+     * Counts the copies of a specific book per status with a single grouped query.
+     *
+     * @param book the {@link Book} whose copies are to be counted.
+     * @return the number of copies for every status, with zero for statuses that have no copies.
+     */
+    public EnumMap<CopyStatus, Long> countCopiesByStatus(Book book) {
+        EnumMap<CopyStatus, Long> counts = emptyStatusCounts();
+        List<Object[]> rows = entityManager.createNamedQuery("Copy.countByStatus", Object[].class)
+                .setParameter("book", book)
+                .getResultList();
+        for (Object[] row : rows) {
+            CopyStatus status = CopyStatus.fromLabel((String) row[0]);
+            if (status != null) {
+                counts.put(status, (Long) row[1]);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Counts the copies of several books per status, using one grouped query per
+     * {@value AbstractRepo#MAX_IDS_PER_QUERY} books instead of separate queries per book and status.
+     *
+     * @param books the books whose copies are to be counted.
+     * @return a map from book ID to its copy counts per status; every given book has an entry.
+     */
+    public Map<Integer, EnumMap<CopyStatus, Long>> countCopiesByStatus(Collection<Book> books) {
+        Map<Integer, EnumMap<CopyStatus, Long>> countsByBook = new HashMap<>();
+        List<Integer> bookIds = new ArrayList<>(books.size());
+        for (Book book : books) {
+            if (book.getId() != null && countsByBook.putIfAbsent(book.getId(), emptyStatusCounts()) == null) {
+                bookIds.add(book.getId());
+            }
+        }
+
+        for (int from = 0; from < bookIds.size(); from += MAX_IDS_PER_QUERY) {
+            List<Integer> chunk = bookIds.subList(from, Math.min(from + MAX_IDS_PER_QUERY, bookIds.size()));
+            List<Object[]> rows = entityManager.createNamedQuery("Copy.countByStatusForBooks", Object[].class)
+                    .setParameter("bookIds", chunk)
+                    .getResultList();
+            for (Object[] row : rows) {
+                CopyStatus status = CopyStatus.fromLabel((String) row[1]);
+                if (status != null) {
+                    countsByBook.get((Integer) row[0]).put(status, (Long) row[2]);
+                }
+            }
+        }
+        return countsByBook;
+    }
+
+    /**
+     * Gets the change stamp of the copies table.
+     *
+     * @return the number of copies and the latest time one was modified.
+     */
+    public ChangeStamp getChangeStamp() {
+        return entityManager.createNamedQuery("Copy.changeStamp", ChangeStamp.class).getSingleResult();
+    }
+
+    private EnumMap<CopyStatus, Long> emptyStatusCounts() {
+        EnumMap<CopyStatus, Long> counts = new EnumMap<>(CopyStatus.class);
+        for (CopyStatus status : CopyStatus.values()) {
+            counts.put(status, 0L);
+        }
+        return counts;
+    }
+}
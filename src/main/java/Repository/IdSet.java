@@ -0,0 +1,93 @@
+package Repository;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Immutable set of entity IDs held as a sorted {@code int} array.
+ * It takes four bytes per ID, against several dozen for a {@code HashSet<Integer>}, and answers
+ * {@link #contains(int)} with a binary search, so a whole table's worth of IDs can be checked row by row cheaply.
+ */
+public final class IdSet {
+    private static final IdSet EMPTY = new IdSet(new int[0]);
+
+    private final int[] ids;
+
+    private IdSet(int[] ids) {
+        this.ids = ids;
+    }
+
+    /**
+     * @return the empty set.
+     */
+    public static IdSet empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates a set of the given IDs. Duplicates and {@code null}s are dropped.
+     *
+     * @param ids the IDs, in any order.
+     * @return the set of the IDs.
+     */
+    public static IdSet of(Collection<Integer> ids) {
+        int[] sorted = new int[ids.size()];
+        int size = 0;
+        for (Integer id : ids) {
+            if (id != null) {
+                sorted[size++] = id;
+            }
+        }
+        Arrays.sort(sorted, 0, size);
+
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || sorted[distinct - 1] != sorted[i]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return distinct == 0 ? EMPTY : new IdSet(Arrays.copyOf(sorted, distinct));
+    }
+
+    /**
+     * @param id the ID to look up.
+     * @return whether the set contains the ID.
+     */
+    public boolean contains(int id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    /**
+     * @param id the ID to look up, may be {@code null}.
+     * @return whether the set contains the ID; {@code false} for {@code null}.
+     */
+    public boolean contains(Integer id) {
+        return id != null && contains(id.intValue());
+    }
+
+    /**
+     * @return the number of IDs in the set.
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * @return whether the set has no IDs.
+     */
+    public boolean isEmpty() {
+        return ids.length == 0;
+    }
+
+    /**
+     * @return a copy of the IDs in ascending order.
+     */
+    public int[] toArray() {
+        return ids.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "IdSet" + Arrays.toString(ids);
+    }
+}
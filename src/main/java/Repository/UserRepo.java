@@ -1,54 +1,212 @@
-package Repository;
-
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.NoResultException;
-import jakarta.persistence.TypedQuery;
-import table.User;
-
-import java.util.Optional;
-
-/**
- * Repository class for managing {@link User} entities in the database.
- * Provides methods for performing CRUD operations and custom queries.
- */
-public class UserRepo extends AbstractRepo<User> {
-
-    /**
-     * Constructs a new {@code UserRepo} instance with the specified {@link EntityManager}.
-     *
-     * @param entityManager the EntityManager to be used for database operations.
-     */
-    public UserRepo(EntityManager entityManager) {
-        super(entityManager);
-    }
-
-    /**
-     * Finds a {@link User} entity by its email.
-     *
-     * @param email the email of the user to find.
-     * @return an {@link Optional} containing the user if found, or {@link Optional#empty()} if not.
-     */
-    public Optional<User> findByEmail(String email) {
-        TypedQuery<User> query = entityManager.createQuery(
-                "SELECT u FROM User u WHERE u.email = :email", User.class);
-        query.setParameter("email", email);
-        try {
-            return Optional.of(query.getSingleResult());
-        } catch (NoResultException e) {
-            return Optional.empty();
-        }
-    }
-
-    /**
-     * Checks whether a {@link User} entity with the specified email exists in the database.
-     *
-     * @param email the email to check for existence.
-     * @return {@code true} if a user with the specified email exists, {@code false} otherwise.
-     */
-    public boolean existsByEmail(String email) {
-        TypedQuery<Long> query = entityManager.createQuery(
-                "SELECT COUNT(u) FROM User u WHERE u.email = :email", Long.class);
-        query.setParameter("email", email);
-        return query.getSingleResult() > 0;
-    }
-}
+package Repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.NoResultException;
+import jakarta.persistence.TypedQuery;
+import table.User;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Repository class for managing {@link User} entities in the database.
+ * Provides methods for performing CRUD operations and custom queries.
+ */
+public class UserRepo extends AbstractRepo<User> {
+
+    /**
+     * Constructs a new {@code UserRepo} instance with the specified {@link EntityManager}.
+     *
+     * @param entityManager the EntityManager to be used for database operations.
+     */
+    public UserRepo(EntityManager entityManager) {
+        super(entityManager);
+    }
+
+    /**
+     * Retrieves all users together with their borrowings and librarian role,
+     * so the user listing can be displayed once the users are detached.
+     *
+     * @return a list of all users.
+     */
+    @Override
+    public List<User> findAll() {
+        return entityManager.createNamedQuery("User.findAll", User.class)
+                .getResultList();
+    }
+
+    /**
+     * Retrieves a summary of every user, ordered by ID, with the librarian role joined in
+     * by one query instead of one query per user.
+     *
+     * @return a list of user summaries.
+     */
+    public List<UserSummary> findSummaries() {
+        return entityManager.createNamedQuery("User.findSummaries", UserSummary.class)
+                .getResultList();
+    }
+
+    /**
+     * Retrieves the summaries of the users inserted or updated after the given time, ordered by ID.
+     *
+     * @param since the time after which the users were modified.
+     * @return a list of summaries of the modified users.
+     */
+    public List<UserSummary> findSummariesModifiedSince(Date since) {
+        return entityManager.createNamedQuery("User.findSummariesModifiedSince", UserSummary.class)
+                .setParameter("since", since)
+                .getResultList();
+    }
+
+    /**
+     * Retrieves the summary of one user, for refreshing a single row of a listing.
+     *
+     * @param id the ID of the user.
+     * @return an Optional containing the summary if the user exists.
+     */
+    public Optional<UserSummary> findSummaryById(Integer id) {
+        return entityManager.createNamedQuery("User.findSummaryById", UserSummary.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst();
+    }
+
+    /**
+     * Retrieves the IDs of all users, without loading the users.
+     *
+     * @return the set of user IDs.
+     */
+    public IdSet findIds() {
+        return IdSet.of(entityManager.createNamedQuery("User.findIds", Integer.class).getResultList());
+    }
+
+    /**
+     * Gets the change stamp of the users table.
+     *
+     * @return the number of users and the latest time one was modified.
+     */
+    public ChangeStamp getChangeStamp() {
+        return entityManager.createNamedQuery("User.changeStamp", ChangeStamp.class).getSingleResult();
+    }
+
+    /**
+     * Counts a new borrowing in the loan counters of a user, unless the user already has the maximum number of
+     * active loans. Runs as a single conditional UPDATE in the current transaction, so concurrent borrowings of the
+     * same user, even from other processes, cannot lose an increment or together exceed the maximum.
+     *
+     * @param userId the ID of the borrowing user.
+     * @param borrowDate the date of the borrowing.
+     * @param maxActiveLoans the maximum number of active loans a user may have.
+     * @return {@code true} if the borrowing was counted, {@code false} if the user is at the maximum.
+     */
+    public boolean recordBorrow(Integer userId, Date borrowDate, int maxActiveLoans) {
+        return entityManager.createNamedQuery("User.recordBorrow")
+                .setParameter("userId", userId)
+                .setParameter("borrowDate", borrowDate)
+                .setParameter("maxActiveLoans", maxActiveLoans)
+                .setParameter("now", new Date())
+                .executeUpdate() > 0;
+    }
+
+    /**
+     * Takes the borrowings of a copy out of the loan counters of their users, before the copy and with it its
+     * borrowings are deleted. Only returned borrowings may be removed this way, so the active loans are unchanged.
+     * Runs as a single UPDATE in the current transaction.
+     *
+     * @param copyId the ID of the copy about to be deleted.
+     * @return the number of users whose counters were updated.
+     */
+    public int forgetBorrowingsOfCopy(Integer copyId) {
+        return entityManager.createNamedQuery("User.forgetBorrowingsOfCopy")
+                .setParameter("copyId", copyId)
+                .setParameter("now", new Date())
+                .executeUpdate();
+    }
+
+    /**
+     * Counts a returned borrowing in the loan counters of a user. Runs as a single UPDATE in the current transaction.
+     *
+     * @param userId the ID of the user who returned the copy.
+     */
+    public void recordReturn(Integer userId) {
+        entityManager.createNamedQuery("User.recordReturn")
+                .setParameter("userId", userId)
+                .setParameter("now", new Date())
+                .executeUpdate();
+    }
+
+    /**
+     * Recomputes the loan counters of every user from the borrowings table, repairing any drift.
+     *
+     * @return the number of users updated.
+     */
+    public int recomputeLoanCounters() {
+        boolean isActive = entityManager.getTransaction().isActive();
+        if (!isActive) {
+            entityManager.getTransaction().begin();
+        }
+        try {
+            int updated = entityManager.createNamedQuery("User.recomputeLoanCounters")
+                    .setParameter("now", new Date())
+                    .executeUpdate();
+            if (!isActive) {
+                entityManager.getTransaction().commit();
+            }
+            return updated;
+        } catch (Exception e) {
+            if (!isActive && entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Finds users by their IDs, returned in the order of the given IDs. IDs without a matching user are skipped.
+     *
+     * @param ids the IDs of the users to find.
+     * @return a list of the users found, in the order of {@code ids}.
+     */
+    public List<User> findByIds(List<Integer> ids) {
+        Map<Integer, User> usersById = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + MAX_IDS_PER_QUERY, ids.size()));
+            entityManager.createNamedQuery("User.findByIds", User.class)
+                    .setParameter("ids", chunk)
+                    .getResultList()
+                    .forEach(user -> usersById.put(user.getId(), user));
+        }
+        return inIdOrder(ids, usersById);
+    }
+
+    /**
+     * Finds a {@link User} entity by its email.
+     *
+     * @param email the email of the user to find.
+     * @return an {@link Optional} containing the user if found, or {@link Optional#empty()} if not.
+     */
+    public Optional<User> findByEmail(String email) {
+        TypedQuery<User> query = entityManager.createNamedQuery("User.findByEmail", User.class);
+        query.setParameter("email", email);
+        try {
+            return Optional.of(query.getSingleResult());
+        } catch (NoResultException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Checks whether a {@link User} entity with the specified email exists in the database.
+     *
+     * @param email the email to check for existence.
+     * @return {@code true} if a user with the specified email exists, {@code false} otherwise.
+     */
+    public boolean existsByEmail(String email) {
+        TypedQuery<Long> query = entityManager.createNamedQuery("User.countByEmail", Long.class);
+        query.setParameter("email", email);
+        return query.getSingleResult() > 0;
+    }
+}
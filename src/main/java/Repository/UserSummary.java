@@ -0,0 +1,22 @@
+package Repository;
+
+import java.util.Date;
+
+/**
+ * Flat, read-only view of a user as listed in the user table, including the librarian role and loan counters.
+ * Produced by a single query in {@link UserRepo}, so no borrowings or librarians are loaded
+ * and no role check runs per user.
+ *
+ * @param id the ID of the user.
+ * @param name the name of the user.
+ * @param email the email of the user.
+ * @param phoneNumber the phone number of the user.
+ * @param address the address of the user.
+ * @param librarian whether the user is a librarian.
+ * @param activeLoans the number of borrowings of the user that have not been returned.
+ * @param lifetimeLoans the number of borrowings of the user, returned or not.
+ * @param lastBorrowDate the date of the user's most recent borrowing, or {@code null} if there is none.
+ */
+public record UserSummary(Integer id, String name, String email, String phoneNumber, String address,
+                          boolean librarian, int activeLoans, int lifetimeLoans, Date lastBorrowDate) {
+}
@@ -0,0 +1,225 @@
+package app;
+
+import manager.EntityManagerProvider;
+import org.hibernate.Session;
+
+import javax.swing.*;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Runs the database loads of a window off the event dispatch thread and hands the results back to the EDT.
+ * <p>
+ * Every load runs on its own virtual thread, so it gets its own EntityManager and persistence context from the
+ * {@link manager.EntityManagerProvider}, and independent loads of one window run in parallel. Loads are grouped
+ * by a key, typically the table they fill: starting a load cancels the load still running under the same key,
+ * and a result that has been superseded in the meantime is dropped instead of being shown.
+ * A cancelled load that is already running is not interrupted, since interrupting a thread in the middle of
+ * file I/O makes the embedded H2 database close its file. A load started with an {@link EntityManagerProvider}
+ * has its statements cancelled at the database instead, until it stops; any other load runs to completion.
+ * Either way its result is dropped.
+ * <p>
+ * Methods must be called on the EDT; the callbacks also run there.
+ */
+public class AsyncLoader {
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Cancels run on a platform thread: a query busy on a virtual thread can hold the only carrier thread
+    private static final ScheduledExecutorService CANCELLER = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("load-canceller").daemon().factory());
+    private static final long CANCEL_RETRY_MILLIS = 20;
+
+    // A running load. A load started with a provider also knows the session its statements run on
+    private static final class Load {
+        private final boolean cancellable;
+        private final AtomicReference<Session> session = new AtomicReference<>();
+        private volatile Future<?> future;
+        private volatile boolean started;
+        private volatile boolean finished;
+        private volatile ScheduledFuture<?> canceller;
+
+        private Load(boolean cancellable) {
+            this.cancellable = cancellable;
+        }
+
+        private void stop() {
+            future.cancel(false);
+            if (cancellable) {
+                canceller = CANCELLER.scheduleWithFixedDelay(this::cancelStatement, 0, CANCEL_RETRY_MILLIS,
+                        TimeUnit.MILLISECONDS);
+            }
+        }
+
+        // A cancel only reaches the statement running at that moment, so it is repeated until the query is over.
+        // A load that had not started yet sees that it was cancelled and does not run its query
+        private void cancelStatement() {
+            if (!started || finished) {
+                ScheduledFuture<?> self = canceller;
+                if (self != null) {
+                    self.cancel(false);
+                }
+                return;
+            }
+            Session running = session.get();
+            if (running != null) {
+                try {
+                    running.cancelQuery();
+                } catch (RuntimeException e) {
+                    // No statement is running right now
+                }
+            }
+        }
+    }
+
+    private final Map<String, Load> loads = new ConcurrentHashMap<>();
+    private final Consumer<Exception> defaultErrorHandler;
+
+    /**
+     * Creates a loader that reports failed loads on standard error.
+     */
+    public AsyncLoader() {
+        this(e -> System.err.println("Error loading data: " + e.getMessage()));
+    }
+
+    /**
+     * Creates a loader with the given handler for failed loads.
+     *
+     * @param defaultErrorHandler called on the EDT with the cause of a failed load.
+     */
+    public AsyncLoader(Consumer<Exception> defaultErrorHandler) {
+        this.defaultErrorHandler = defaultErrorHandler;
+    }
+
+    /**
+     * Starts a load, cancelling the load running under the same key.
+     *
+     * @param key the key of the load, such as the name of the table it fills.
+     * @param query the query to run in the background.
+     * @param onLoaded called on the EDT with the result, unless the load was superseded or cancelled.
+     * @param <T> the type of the result.
+     */
+    public <T> void load(String key, Callable<T> query, Consumer<T> onLoaded) {
+        load(key, query, onLoaded, defaultErrorHandler);
+    }
+
+    /**
+     * Starts a load, cancelling the load running under the same key.
+     *
+     * @param key the key of the load, such as the name of the table it fills.
+     * @param query the query to run in the background.
+     * @param onLoaded called on the EDT with the result, unless the load was superseded or cancelled.
+     * @param onFailed called on the EDT if the query fails, unless the load was superseded or cancelled.
+     * @param <T> the type of the result.
+     */
+    public <T> void load(String key, Callable<T> query, Consumer<T> onLoaded, Consumer<Exception> onFailed) {
+        start(key, new Load(false), query, onLoaded, onFailed);
+    }
+
+    /**
+     * Starts a load whose statements can be cancelled at the database, cancelling the load running under the
+     * same key. The query runs in one unit of work of the provider, so the services it calls join that unit of
+     * work and run their statements on its session; cancelling the load cancels the statement running there.
+     *
+     * @param key the key of the load, such as the name of the table it fills.
+     * @param entityManagerProvider the provider the query runs against.
+     * @param query the query to run in the background; it must only use the given provider.
+     * @param onLoaded called on the EDT with the result, unless the load was superseded or cancelled.
+     * @param onFailed called on the EDT if the query fails, unless the load was superseded or cancelled.
+     * @param <T> the type of the result.
+     */
+    public <T> void load(String key, EntityManagerProvider entityManagerProvider, Callable<T> query,
+                         Consumer<T> onLoaded, Consumer<Exception> onFailed) {
+        Load load = new Load(true);
+        start(key, load, () -> {
+            load.started = true;
+            Future<?> self = load.future;
+            if (self != null && self.isCancelled()) {
+                throw new CancellationException();
+            }
+            try {
+                return entityManagerProvider.call(em -> {
+                    load.session.set(em.unwrap(Session.class));
+                    try {
+                        return query.call();
+                    } finally {
+                        load.session.set(null);
+                    }
+                });
+            } finally {
+                load.finished = true;
+            }
+        }, onLoaded, onFailed);
+    }
+
+    private <T> void start(String key, Load load, Callable<T> query, Consumer<T> onLoaded,
+                           Consumer<Exception> onFailed) {
+        // The task may finish before its future is registered; publishing goes through the EDT after the
+        // registration below, so the currency check always sees the registered load
+        load.future = EXECUTOR.submit(() -> {
+            try {
+                T result = query.call();
+                SwingUtilities.invokeLater(() -> {
+                    if (complete(key, load)) {
+                        onLoaded.accept(result);
+                    }
+                });
+            } catch (Exception e) {
+                SwingUtilities.invokeLater(() -> {
+                    if (complete(key, load)) {
+                        onFailed.accept(e);
+                    }
+                });
+            }
+        });
+        Load previous = loads.put(key, load);
+        if (previous != null) {
+            previous.stop();
+        }
+    }
+
+    /**
+     * Cancels the load running under a key; its result will not be delivered.
+     *
+     * @param key the key of the load.
+     */
+    public void cancel(String key) {
+        Load load = loads.remove(key);
+        if (load != null) {
+            load.stop();
+        }
+    }
+
+    /**
+     * Cancels every running load, for example when the window is closed.
+     */
+    public void cancelAll() {
+        for (String key : loads.keySet()) {
+            cancel(key);
+        }
+    }
+
+    /**
+     * @param key the key of the load.
+     * @return whether a load is running under the key.
+     */
+    public boolean isLoading(String key) {
+        return loads.containsKey(key);
+    }
+
+    private boolean complete(String key, Load load) {
+        if (load.future.isCancelled()) {
+            return false;
+        }
+        return loads.remove(key, load);
+    }
+}
@@ -0,0 +1,40 @@
+package app;
+
+import Repository.BookSummary;
+import manager.EntityManagerProvider;
+import manager.ManageBook;
+
+import java.util.List;
+
+/**
+ * Pages through the summaries of all books, ordered by title.
+ * Pages that follow a known row are fetched by keyset; only a jump to an arbitrary position falls back to an offset.
+ */
+public class BookPageSource implements PagedTableModel.PageSource<BookSummary> {
+    private final ManageBook manageBook;
+    private final EntityManagerProvider entityManagerProvider;
+
+    public BookPageSource(ManageBook manageBook, EntityManagerProvider entityManagerProvider) {
+        this.manageBook = manageBook;
+        this.entityManagerProvider = entityManagerProvider;
+    }
+
+    @Override
+    public int count() {
+        return Math.toIntExact(manageBook.countBooks());
+    }
+
+    @Override
+    public List<BookSummary> fetchPage(int offset, BookSummary previous, int limit) {
+        if (previous != null) {
+            return manageBook.getBookSummaryPage(previous.title(), previous.id(), limit);
+        }
+        return offset == 0 ? manageBook.getBookSummaryPage(null, null, limit)
+                : manageBook.getBookSummaryPageAt(offset, limit);
+    }
+
+    @Override
+    public EntityManagerProvider entityManagerProvider() {
+        return entityManagerProvider;
+    }
+}
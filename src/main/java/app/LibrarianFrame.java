@@ -1,701 +1,932 @@
-package app;
-
-import jakarta.persistence.EntityManager;
-import manager.*;
-import table.Book;
-import table.Borrowing;
-import table.User;
-
-import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
-import javax.swing.table.JTableHeader;
-import java.awt.*;
-import java.util.Date;
-import java.util.List;
-
-public class LibrarianFrame extends JFrame {
-    private final User librarian;
-    private final ManageBook manageBook;
-    private final ManageUser userService;
-    private final ManageBorrowing manageBorrowing;
-    private final ManageCopy manageCopy;
-    private final ManagePublisher managePublisher;
-    private final ManageLibrarian manageLibrarian;
-
-    private JTabbedPane tabbedPane;
-    private JTable booksTable;
-    private JTable usersTable;
-    private JTable borrowingsTable;
-    private DefaultTableModel booksTableModel;
-    private DefaultTableModel usersTableModel;
-    private DefaultTableModel borrowingsTableModel;
-    private JCheckBox showReturnedCheckBox;
-    private JCheckBox showOverdueCheckBox;
-
-    public LibrarianFrame(User librarian, EntityManager entityManager) {
-        this.librarian = librarian;
-        this.manageBook = new ManageBook(entityManager);
-        this.userService = new ManageUser(entityManager);
-        this.manageBorrowing = new ManageBorrowing(entityManager);
-        this.manageCopy = new ManageCopy(entityManager);
-        this.managePublisher = new ManagePublisher(entityManager);
-        this.manageLibrarian = new ManageLibrarian(entityManager);
-
-        setTitle("Library Management System - Librarian: " + librarian.getName());
-        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        setSize(1200, 800);
-        setLocationRelativeTo(null);
-        getContentPane().setBackground(new Color(245, 245, 245));
-
-        initComponents();
-        loadData();
-    }
-
-    private void initComponents() {
-        // Create a header panel
-        JPanel headerPanel = new JPanel(new BorderLayout());
-        headerPanel.setBackground(new Color(51, 122, 183));
-        headerPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
-
-        JLabel headerLabel = new JLabel("Welcome, Librarian " + librarian.getName());
-        headerLabel.setFont(new Font("Segoe UI", Font.BOLD, 24));
-        headerLabel.setForeground(Color.WHITE);
-        headerPanel.add(headerLabel, BorderLayout.WEST);
-
-        // Initialize tabbed pane
-        tabbedPane = new JTabbedPane();
-        tabbedPane.setFont(new Font("Segoe UI", Font.PLAIN, 14));
-        tabbedPane.setBackground(Color.WHITE);
-
-        // Add tabs
-        tabbedPane.addTab("Books Management", createBooksPanel());
-        tabbedPane.addTab("Users Management", createUsersPanel());
-        tabbedPane.addTab("Borrowings Management", createBorrowingsPanel());
-
-        // Main layout
-        setLayout(new BorderLayout());
-        add(headerPanel, BorderLayout.NORTH);
-        add(tabbedPane, BorderLayout.CENTER);
-
-        // Create menu bar
-        createMenuBar();
-    }
-
-    private JTable createStyledTable(DefaultTableModel model) {
-        JTable table = new JTable(model);
-
-        // Basic table settings
-        table.setFont(new Font("Segoe UI", Font.PLAIN, 14));
-        table.setRowHeight(35);
-        table.setBackground(Color.BLACK);
-        table.setForeground(Color.BLACK); // Ensure text is black
-        table.setGridColor(new Color(230, 230, 230));
-        table.setSelectionBackground(new Color(207, 226, 243));
-        table.setSelectionForeground(Color.BLACK); // Ensure text is black when selected
-        table.getTableHeader().setReorderingAllowed(false);
-
-        // Header styling
-        JTableHeader header = table.getTableHeader();
-        header.setBackground(new Color(51, 122, 183));
-        header.setForeground(Color.BLACK);
-        header.setFont(new Font("Segoe UI", Font.BOLD, 14));
-        header.setPreferredSize(new Dimension(header.getPreferredSize().width, 40));
-
-        // Custom renderer for table cells
-        javax.swing.table.DefaultTableCellRenderer cellRenderer = new javax.swing.table.DefaultTableCellRenderer() {
-            @Override
-            public Component getTableCellRendererComponent(JTable table, Object value,
-                                                           boolean isSelected, boolean hasFocus, int row, int column) {
-                Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
-
-                // Ensure the text color is always black
-                c.setForeground(Color.BLACK);
-
-                // Set the background for selected and unselected rows
-                if (isSelected) {
-                    c.setBackground(new Color(207, 226, 243)); // Light blue for selection
-                } else {
-                    c.setBackground(row % 2 == 0 ? Color.WHITE : new Color(250, 250, 250)); // Alternate row colors
-                }
-
-                // Add padding to the cell
-                setBorder(BorderFactory.createEmptyBorder(0, 5, 0, 5));
-                return c;
-            }
-        };
-
-        // Apply the renderer to all columns
-        for (int i = 0; i < table.getColumnCount(); i++) {
-            table.getColumnModel().getColumn(i).setCellRenderer(cellRenderer);
-        }
-
-        return table;
-    }
-
-
-    private JButton createStyledButton(String text) {
-        JButton button = new JButton(text);
-        button.setFont(new Font("Segoe UI", Font.PLAIN, 14));
-        button.setBackground(new Color(51, 122, 183));
-        button.setForeground(Color.BLACK);
-        button.setFocusPainted(false);
-        button.setBorder(BorderFactory.createEmptyBorder(8, 15, 8, 15));
-        button.setOpaque(true);
-
-        button.addMouseListener(new java.awt.event.MouseAdapter() {
-            public void mouseEntered(java.awt.event.MouseEvent evt) {
-                button.setBackground(new Color(40, 96, 144));
-            }
-            public void mouseExited(java.awt.event.MouseEvent evt) {
-                button.setBackground(new Color(51, 122, 183));
-            }
-        });
-
-        return button;
-    }
-
-    private JTextField createStyledTextField() {
-        JTextField textField = new JTextField(20);
-        textField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
-        textField.setBorder(BorderFactory.createCompoundBorder(
-                BorderFactory.createLineBorder(new Color(51, 122, 183)),
-                BorderFactory.createEmptyBorder(5, 5, 5, 5)
-        ));
-        return textField;
-    }
-
-    private JPanel createBooksPanel() {
-        JPanel panel = new JPanel(new BorderLayout(10, 10));
-        panel.setBackground(Color.WHITE);
-        panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-
-        // Search Panel
-        JPanel searchPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-        searchPanel.setBackground(Color.WHITE);
-
-        JTextField searchField = createStyledTextField();
-        JButton searchButton = createStyledButton("Search Books");
-
-        searchPanel.add(new JLabel("Search: "));
-        searchPanel.add(searchField);
-        searchPanel.add(searchButton);
-
-        searchButton.addActionListener(e -> searchBooks(searchField.getText()));
-
-        // Button Panel
-        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-        buttonPanel.setBackground(Color.WHITE);
-
-        JButton addButton = createStyledButton("Add Book");
-        JButton editButton = createStyledButton("Edit Book");
-        JButton deleteButton = createStyledButton("Delete Book");
-        JButton manageCopiesButton = createStyledButton("Manage Copies");
-
-        buttonPanel.add(addButton);
-        buttonPanel.add(editButton);
-        buttonPanel.add(deleteButton);
-        buttonPanel.add(manageCopiesButton);
-
-        // Action listeners
-        addButton.addActionListener(e -> showAddBookDialog());
-        editButton.addActionListener(e -> showEditBookDialog());
-        deleteButton.addActionListener(e -> deleteSelectedBook());
-        manageCopiesButton.addActionListener(e -> showManageCopiesDialog());
-
-        // Books Table
-        String[] bookColumns = {
-                "ID", "Title", "Author", "ISBN", "Publication Year",
-                "Publisher", "Total Copies", "Available Copies"
-        };
-
-        booksTableModel = new DefaultTableModel(bookColumns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
-
-        booksTable = createStyledTable(booksTableModel);
-        JScrollPane scrollPane = new JScrollPane(booksTable);
-        scrollPane.setBorder(BorderFactory.createLineBorder(new Color(230, 230, 230)));
-
-        // Control Panel
-        JPanel controlPanel = new JPanel(new BorderLayout());
-        controlPanel.setBackground(Color.WHITE);
-        controlPanel.add(searchPanel, BorderLayout.NORTH);
-        controlPanel.add(buttonPanel, BorderLayout.CENTER);
-
-        panel.add(controlPanel, BorderLayout.NORTH);
-        panel.add(scrollPane, BorderLayout.CENTER);
-
-        return panel;
-    }
-
-    private JPanel createUsersPanel() {
-        JPanel panel = new JPanel(new BorderLayout(5, 5));
-        panel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
-
-        // Create table model for users
-        String[] userColumns = {
-                "ID", "Name", "Email", "Phone", "Address", "Role", "Active Borrowings"
-        };
-        usersTableModel = new DefaultTableModel(userColumns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
-        usersTable = createStyledTable(usersTableModel);
-        usersTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
-
-        // Add scroll pane for table
-        JScrollPane scrollPane = new JScrollPane(usersTable);
-        panel.add(scrollPane, BorderLayout.CENTER);
-
-        // Create button panel
-        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-        JButton addButton = new JButton("Add User");
-        JButton editButton = new JButton("Edit User");
-        JButton deleteButton = new JButton("Delete User");
-        JButton makeLibrarianButton = new JButton("Make Librarian");
-
-        buttonPanel.add(addButton);
-        buttonPanel.add(editButton);
-        buttonPanel.add(deleteButton);
-        buttonPanel.add(makeLibrarianButton);
-
-        // Add action listeners
-        addButton.addActionListener(e -> showAddUserDialog());
-        editButton.addActionListener(e -> showEditUserDialog());
-        deleteButton.addActionListener(e -> deleteSelectedUser());
-        makeLibrarianButton.addActionListener(e -> makeSelectedUserLibrarian());
-
-        panel.add(buttonPanel, BorderLayout.NORTH);
-
-        return panel;
-    }
-
-    private JPanel createBorrowingsPanel() {
-        JPanel panel = new JPanel(new BorderLayout(5, 5));
-        panel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
-
-        // Create table model for borrowings
-        String[] borrowingColumns = {
-                "ID", "User", "Book Title", "Borrow Date", "Due Date",
-                "Return Date", "Status", "Late Fee"
-        };
-        borrowingsTableModel = new DefaultTableModel(borrowingColumns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-
-            @Override
-            public Class<?> getColumnClass(int columnIndex) {
-                // Remove the special handling for the late fee column
-                return String.class;
-            }
-        };
-        borrowingsTable = createStyledTable(borrowingsTableModel);
-        borrowingsTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
-
-        // Add scroll pane for table
-        JScrollPane scrollPane = new JScrollPane(borrowingsTable);
-        panel.add(scrollPane, BorderLayout.CENTER);
-
-        // Create top control panel
-        JPanel topControlPanel = new JPanel(new BorderLayout());
-
-        // Create button panel
-        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-        JButton newBorrowingButton = new JButton("New Borrowing");
-        JButton returnBookButton = new JButton("Return Book");
-        JButton renewButton = new JButton("Renew Borrowing");
-
-        buttonPanel.add(newBorrowingButton);
-        buttonPanel.add(returnBookButton);
-        buttonPanel.add(renewButton);
-
-
-        // Create filter panel
-        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
-        showReturnedCheckBox = new JCheckBox("Show Returned");
-        showOverdueCheckBox = new JCheckBox("Show Overdue Only");
-        filterPanel.add(showReturnedCheckBox);
-        filterPanel.add(showOverdueCheckBox);
-
-        // Add panels to top control panel
-        topControlPanel.add(buttonPanel, BorderLayout.WEST);
-        topControlPanel.add(filterPanel, BorderLayout.EAST);
-
-        // Add action listeners
-        newBorrowingButton.addActionListener(e -> showNewBorrowingDialog());
-        returnBookButton.addActionListener(e -> showReturnBookDialog());
-        renewButton.addActionListener(e -> renewSelectedBorrowing());
-
-        // Add filter listeners
-        showReturnedCheckBox.addActionListener(e -> loadBorrowings());
-        showOverdueCheckBox.addActionListener(e -> loadBorrowings());
-
-        panel.add(topControlPanel, BorderLayout.NORTH);
-
-        return panel;
-    }
-
-
-
-    private void createMenuBar() {
-        JMenuBar menuBar = new JMenuBar();
-        menuBar.setBackground(Color.GRAY);
-        menuBar.setBorder(null);
-
-        // File Menu
-        JMenu fileMenu = new JMenu("File");
-        fileMenu.setForeground(Color.WHITE);
-        fileMenu.setFont(new Font("Segoe UI", Font.PLAIN, 14));
-
-        JMenuItem refreshItem = new JMenuItem("Refresh Data");
-        JMenuItem exitItem = new JMenuItem("Exit");
-
-        styleMenuItem(refreshItem);
-        styleMenuItem(exitItem);
-
-        refreshItem.addActionListener(e -> loadData());
-        exitItem.addActionListener(e -> System.exit(0));
-
-        fileMenu.add(refreshItem);
-        fileMenu.addSeparator();
-        fileMenu.add(exitItem);
-
-        // Reports Menu
-        JMenu reportsMenu = new JMenu("Reports");
-        reportsMenu.setForeground(Color.WHITE);
-        reportsMenu.setFont(new Font("Segoe UI", Font.PLAIN, 14));
-
-        menuBar.add(fileMenu);
-        menuBar.add(reportsMenu);
-
-        setJMenuBar(menuBar);
-    }
-
-    private void styleMenuItem(JMenuItem item) {
-        item.setFont(new Font("Segoe UI", Font.PLAIN, 14));
-        item.setBackground(Color.WHITE);
-        item.setForeground(Color.BLACK);
-    }
-
-    private void loadData() {
-        loadBooks();
-        loadUsers();
-        loadBorrowings();
-    }
-
-    private void loadBooks() {
-        booksTableModel.setRowCount(0);
-        List<Book> books = manageBook.getAllBooks();
-        for (Book book : books) {
-            Object[] row = {
-                    book.getId(),
-                    book.getTitle(),
-                    book.getAuthor(),
-                    book.getIsbn(),
-                    book.getPublicationYear(),
-                    book.getPublisher() != null ? book.getPublisher().getName() : "",
-                    book.getCopies() != null ? book.getCopies().size() : 0,
-                    manageCopy.countAvailableCopies(book)
-            };
-            booksTableModel.addRow(row);
-        }
-    }
-
-    private void loadUsers() {
-        usersTableModel.setRowCount(0);
-        List<User> users = userService.retrieveAllUsers();
-        for (User user : users) {
-            Object[] row = {
-                    user.getId(),
-                    user.getName(),
-                    user.getEmail(),
-                    user.getPhoneNumber(),
-                    user.getAddress(),
-                    manageLibrarian.isLibrarian(user) ? "Librarian" : "User",
-                    user.getBorrowings() != null ? user.getBorrowings().size() : 0
-            };
-            usersTableModel.addRow(row);
-        }
-    }
-
-    private void loadBorrowings() {
-        borrowingsTableModel.setRowCount(0);
-        List<Borrowing> borrowings;
-
-        if (showOverdueCheckBox.isSelected()) {
-            // Add logic for overdue borrowings if needed
-            borrowings = manageBorrowing.getCurrentBorrowings(); // Placeholder
-        } else if (!showReturnedCheckBox.isSelected()) {
-            borrowings = manageBorrowing.getCurrentBorrowings();
-        } else {
-            borrowings = manageBorrowing.getUserBorrowingHistory(null); // Ensure this handles null correctly
-        }
-
-        for (Borrowing borrowing : borrowings) {
-            borrowingsTableModel.addRow(new Object[]{
-                    borrowing.getId(),
-                    borrowing.getUser().getName(),
-                    borrowing.getCopy().getBook().getTitle(),
-                    formatDate(borrowing.getBorrowDate()),
-                    formatDate(null), // Replace with actual due date if needed
-                    formatDate(borrowing.getReturnDate()),
-                    borrowing.getReturnDate() == null ? "Active" : "Returned",
-                    "-" // Replace with actual fee logic if needed
-            });
-        }
-    }
-
-
-    private String formatDate(Date date) {
-        if (date == null) return "-";
-        return new java.text.SimpleDateFormat("yyyy-MM-dd").format(date);
-    }
-
-    // Dialog methods
-    private void showAddBookDialog() {
-        BookOperationFrame dialog = new BookOperationFrame(this, null, manageBook, managePublisher);
-        dialog.setVisible(true);
-        if (dialog.isBookSaved()) {
-            loadBooks();
-        }
-    }
-
-    private void showEditBookDialog() {
-        int selectedRow = booksTable.getSelectedRow();
-        if (selectedRow == -1) {
-            JOptionPane.showMessageDialog(this, "Please select a book to edit", "No Selection", JOptionPane.WARNING_MESSAGE);
-            return;
-        }
-
-        Integer bookId = (Integer) booksTable.getValueAt(selectedRow, 0);
-        manageBook.getBookById(bookId).ifPresent(book -> {
-            BookOperationFrame dialog = new BookOperationFrame(this, book, manageBook, managePublisher);
-            dialog.setVisible(true);
-            if (dialog.isBookSaved()) {
-                loadBooks();
-            }
-        });
-    }
-
-    private void deleteSelectedBook() {
-        int selectedRow = booksTable.getSelectedRow();
-        if (selectedRow == -1) {
-            JOptionPane.showMessageDialog(this, "Please select a book to delete", "No Selection", JOptionPane.WARNING_MESSAGE);
-            return;
-        }
-
-        Integer bookId = (Integer) booksTable.getValueAt(selectedRow, 0);
-        try {
-            manageBook.deleteBook(bookId);
-            loadBooks();
-            JOptionPane.showMessageDialog(this, "Book deleted successfully", "Deletion Successful", JOptionPane.INFORMATION_MESSAGE);
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Error deleting book: " + e.getMessage(), "Deletion Failed", JOptionPane.ERROR_MESSAGE);
-        }
-    }
-
-    // Helper methods
-    private Date calculateDueDate(Date borrowDate) {
-        // Implement actual calculation, e.g., 14 days from borrow date
-        long millisInDay = 24 * 60 * 60 * 1000;
-        return new Date(borrowDate.getTime() + (14 * millisInDay));
-    }
-
-    private String formatLateFee(double fee) {
-        return fee > 0 ? String.format("$%.2f", fee) : "-";
-    }
-
-    private void searchBooks(String searchTerm) {
-        if (searchTerm == null || searchTerm.trim().isEmpty()) {
-            loadBooks();
-            return;
-        }
-        booksTableModel.setRowCount(0);
-        List<Book> books = manageBook.searchBooksByTitle(searchTerm);
-        for (Book book : books) {
-            Object[] row = {
-                    book.getId(),
-                    book.getTitle(),
-                    book.getAuthor(),
-                    book.getIsbn(),
-                    book.getPublicationYear(),
-                    book.getPublisher() != null ? book.getPublisher().getName() : "",
-                    book.getCopies() != null ? book.getCopies().size() : 0,
-                    manageCopy.countAvailableCopies(book)
-            };
-            booksTableModel.addRow(row);
-        }
-    }
-
-
-    private void showLibraryStats() {
-        List<Book> allBooks = manageBook.getAllBooks();
-        List<User> allUsers = userService.retrieveAllUsers();
-        List<Borrowing> activeBorrowings = manageBorrowing.getCurrentBorrowings();
-
-        StringBuilder stats = new StringBuilder("Library Statistics\n\n");
-        stats.append(String.format("Total Books: %d\n", allBooks.size()));
-        stats.append(String.format("Total Users: %d\n", allUsers.size()));
-        stats.append(String.format("Active Borrowings: %d\n", activeBorrowings.size()));
-
-        JTextArea textArea = new JTextArea(stats.toString());
-        textArea.setEditable(false);
-
-        JOptionPane.showMessageDialog(this, new JScrollPane(textArea),
-                "Library Statistics", JOptionPane.INFORMATION_MESSAGE);
-    }
-
-
-
-    /**
-     * Opens the Manage Copies dialog for the selected book.
-     */
-    private void showManageCopiesDialog() {
-        int selectedRow = booksTable.getSelectedRow();
-        if (selectedRow == -1) {
-            JOptionPane.showMessageDialog(this, "Please select a book to manage its copies", "No Selection", JOptionPane.WARNING_MESSAGE);
-            return;
-        }
-
-        Integer bookId = (Integer) booksTable.getValueAt(selectedRow, 0);
-        manageBook.getBookById(bookId).ifPresent(book -> {
-            CopyOperationFrame dialog = new CopyOperationFrame(this, book, manageCopy);
-            dialog.setVisible(true);
-            if (dialog.isCopyUpdated()) {
-                loadBooks();
-            }
-        });
-    }
-
-    private void showAddUserDialog() {
-        UserOperationFrame dialog = new UserOperationFrame(this, null, userService);
-        dialog.setVisible(true);
-        if (dialog.isUserSaved()) {
-            loadUsers();
-        }
-    }
-
-    private void showEditUserDialog() {
-        int selectedRow = usersTable.getSelectedRow();
-        if (selectedRow == -1) {
-            JOptionPane.showMessageDialog(this, "Please select a user to edit", "No Selection", JOptionPane.WARNING_MESSAGE);
-            return;
-        }
-
-        Integer userId = (Integer) usersTable.getValueAt(selectedRow, 0);
-        userService.findUserById(userId).ifPresent(user -> {
-            UserOperationFrame dialog = new UserOperationFrame(this, user, userService);
-            dialog.setVisible(true);
-            if (dialog.isUserSaved()) {
-                loadUsers();
-            }
-        });
-    }
-
-    private void deleteSelectedUser() {
-        int selectedRow = usersTable.getSelectedRow();
-        if (selectedRow == -1) {
-            JOptionPane.showMessageDialog(this, "Please select a user to delete", "No Selection", JOptionPane.WARNING_MESSAGE);
-            return;
-        }
-
-        Integer userId = (Integer) usersTable.getValueAt(selectedRow, 0);
-        try {
-            userService.removeUserById(userId);
-            loadUsers();
-            JOptionPane.showMessageDialog(this, "User deleted successfully", "Deletion Successful", JOptionPane.INFORMATION_MESSAGE);
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Error deleting user: " + e.getMessage(), "Deletion Failed", JOptionPane.ERROR_MESSAGE);
-        }
-    }
-
-    private void makeSelectedUserLibrarian() {
-        int selectedRow = usersTable.getSelectedRow();
-        if (selectedRow == -1) {
-            JOptionPane.showMessageDialog(this,
-                    "Please select a user to promote",
-                    "No Selection",
-                    JOptionPane.WARNING_MESSAGE);
-            return;
-        }
-
-        Integer userId = (Integer) usersTable.getValueAt(selectedRow, 0);
-        int choice = JOptionPane.showConfirmDialog(
-                this,
-                "Make this user a senior librarian?",
-                "Librarian Type",
-                JOptionPane.YES_NO_CANCEL_OPTION
-        );
-
-        if (choice != JOptionPane.CANCEL_OPTION) {
-            try {
-                userService.promoteUserToLibrarian(userId, choice == JOptionPane.YES_OPTION);
-                loadUsers();
-                JOptionPane.showMessageDialog(this,
-                        "User promoted successfully",
-                        "Success",
-                        JOptionPane.INFORMATION_MESSAGE);
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this,
-                        "Error promoting user: " + e.getMessage(),
-                        "Error",
-                        JOptionPane.ERROR_MESSAGE);
-            }
-        }
-    }
-
-    private void showReturnBookDialog() {
-        int selectedRow = borrowingsTable.getSelectedRow();
-        if (selectedRow == -1) {
-            JOptionPane.showMessageDialog(this, "Please select a borrowing to return", "No Selection", JOptionPane.WARNING_MESSAGE);
-            return;
-        }
-
-        Integer borrowingId = (Integer) borrowingsTable.getValueAt(selectedRow, 0);
-        manageBorrowing.getBorrowingById(borrowingId).ifPresent(borrowing -> {
-            try {
-                manageBorrowing.returnBook(borrowingId, new Date());
-                JOptionPane.showMessageDialog(this, "Book returned successfully", "Return Successful", JOptionPane.INFORMATION_MESSAGE);
-                loadBorrowings();
-                loadBooks();
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, "Error returning book: " + e.getMessage(), "Return Failed", JOptionPane.ERROR_MESSAGE);
-            }
-        });
-    }
-
-    private void renewSelectedBorrowing() {
-        int selectedRow = borrowingsTable.getSelectedRow();
-        if (selectedRow == -1) {
-            JOptionPane.showMessageDialog(this, "Please select a borrowing to renew", "No Selection", JOptionPane.WARNING_MESSAGE);
-            return;
-        }
-
-        Integer borrowingId = (Integer) borrowingsTable.getValueAt(selectedRow, 0);
-        manageBorrowing.getBorrowingById(borrowingId).ifPresent(borrowing -> {
-            try {
-                manageBorrowing.renewBorrowing(borrowingId);
-                JOptionPane.showMessageDialog(this, "Borrowing renewed successfully", "Renewal Successful", JOptionPane.INFORMATION_MESSAGE);
-                loadBorrowings();
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, "Error renewing borrowing: " + e.getMessage(), "Renewal Failed", JOptionPane.ERROR_MESSAGE);
-            }
-        });
-    }
-
-    private void showNewBorrowingDialog() {
-        BorrowingOperationFrame dialog = new BorrowingOperationFrame(this, userService, manageBook, manageCopy, manageBorrowing, librarian);
-        dialog.setVisible(true);
-        if (dialog.isBorrowingCreated()) {
-            loadBorrowings();
-            loadBooks();
-        }
-    }
-}
+package app;
+
+import Repository.BookSummary;
+import Repository.ChangeStamp;
+import Repository.IdSet;
+import Repository.UserSummary;
+import manager.*;
+import table.Book;
+import table.Borrowing;
+import table.User;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import javax.swing.table.JTableHeader;
+import javax.swing.table.TableModel;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+public class LibrarianFrame extends JFrame {
+    private static final int BOOKS_TAB = 0;
+    private static final int USERS_TAB = 1;
+    private static final int BORROWINGS_TAB = 2;
+
+    private final User librarian;
+    private final EntityManagerProvider entityManagerProvider;
+    private final ManageBook manageBook;
+    private final ManageUser userService;
+    private final ManageBorrowing manageBorrowing;
+    private final ManageCopy manageCopy;
+    private final ManagePublisher managePublisher;
+    private final AsyncLoader loader;
+
+    private JTabbedPane tabbedPane;
+    private JTable booksTable;
+    private JTable usersTable;
+    private JTable borrowingsTable;
+    private PagedTableModel<BookSummary> booksTableModel;
+    private DefaultTableModel usersTableModel;
+    private DefaultTableModel borrowingsTableModel;
+    private JCheckBox showReturnedCheckBox;
+    private JCheckBox showOverdueCheckBox;
+    private LiveSearch<List<BookSummary>> bookSearch;
+    private final List<ChangeBus.Subscription> subscriptions = new ArrayList<>();
+
+    // A tab is loaded in full on first activation; afterwards only the rows changed since are fetched.
+    // Refreshing marks the hidden tabs stale, and they catch up when next activated
+    private final boolean[] tabLoaded = new boolean[3];
+    private final boolean[] tabStale = new boolean[3];
+    private List<ChangeStamp> bookStamps;
+    private boolean showingBookSearch;
+    private ChangeStamp userStamp;
+    private Date usersRefreshedAt;
+    private List<ChangeStamp> borrowingStamps;
+    private Date borrowingsRefreshedAt;
+    private boolean showingCurrentBorrowings;
+
+    private record UserChanges(ChangeStamp stamp, List<UserSummary> changed, IdSet ids, IdSet librarians) {
+    }
+
+    private record BorrowingChanges(List<ChangeStamp> stamps, List<Borrowing> changed, IdSet ids) {
+    }
+
+    public LibrarianFrame(User librarian, EntityManagerProvider entityManagerProvider) {
+        this.librarian = librarian;
+        this.entityManagerProvider = entityManagerProvider;
+        this.manageBook = new ManageBook(entityManagerProvider);
+        this.userService = new ManageUser(entityManagerProvider);
+        this.manageBorrowing = new ManageBorrowing(entityManagerProvider);
+        this.manageCopy = new ManageCopy(entityManagerProvider);
+        this.managePublisher = new ManagePublisher(entityManagerProvider);
+        this.loader = new AsyncLoader(e -> JOptionPane.showMessageDialog(this,
+                "Error loading data: " + e.getMessage(), "Loading Failed", JOptionPane.ERROR_MESSAGE));
+
+        setTitle("Library Management System - Librarian: " + librarian.getName());
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setSize(1200, 800);
+        setLocationRelativeTo(null);
+        getContentPane().setBackground(new Color(245, 245, 245));
+
+        initComponents();
+        activateTab(tabbedPane.getSelectedIndex());
+        subscribeToChanges();
+    }
+
+    private void initComponents() {
+        // Create a header panel
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBackground(new Color(51, 122, 183));
+        headerPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+
+        JLabel headerLabel = new JLabel("Welcome, Librarian " + librarian.getName());
+        headerLabel.setFont(new Font("Segoe UI", Font.BOLD, 24));
+        headerLabel.setForeground(Color.WHITE);
+        headerPanel.add(headerLabel, BorderLayout.WEST);
+
+        // Initialize tabbed pane
+        tabbedPane = new JTabbedPane();
+        tabbedPane.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        tabbedPane.setBackground(Color.WHITE);
+
+        // Add tabs
+        tabbedPane.addTab("Books Management", createBooksPanel());
+        tabbedPane.addTab("Users Management", createUsersPanel());
+        tabbedPane.addTab("Borrowings Management", createBorrowingsPanel());
+        tabbedPane.addChangeListener(e -> activateTab(tabbedPane.getSelectedIndex()));
+
+        // Main layout
+        setLayout(new BorderLayout());
+        add(headerPanel, BorderLayout.NORTH);
+        add(tabbedPane, BorderLayout.CENTER);
+
+        // Create menu bar
+        createMenuBar();
+    }
+
+    private JTable createStyledTable(TableModel model) {
+        JTable table = new JTable(model);
+
+        // Basic table settings
+        table.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        table.setRowHeight(35);
+        table.setBackground(Color.BLACK);
+        table.setForeground(Color.BLACK); // Ensure text is black
+        table.setGridColor(new Color(230, 230, 230));
+        table.setSelectionBackground(new Color(207, 226, 243));
+        table.setSelectionForeground(Color.BLACK); // Ensure text is black when selected
+        table.getTableHeader().setReorderingAllowed(false);
+
+        // Header styling
+        JTableHeader header = table.getTableHeader();
+        header.setBackground(new Color(51, 122, 183));
+        header.setForeground(Color.BLACK);
+        header.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        header.setPreferredSize(new Dimension(header.getPreferredSize().width, 40));
+
+        // Custom renderer for table cells
+        javax.swing.table.DefaultTableCellRenderer cellRenderer = new javax.swing.table.DefaultTableCellRenderer() {
+            @Override
+            public Component getTableCellRendererComponent(JTable table, Object value,
+                                                           boolean isSelected, boolean hasFocus, int row, int column) {
+                Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+
+                // Ensure the text color is always black
+                c.setForeground(Color.BLACK);
+
+                // Set the background for selected and unselected rows
+                if (isSelected) {
+                    c.setBackground(new Color(207, 226, 243)); // Light blue for selection
+                } else {
+                    c.setBackground(row % 2 == 0 ? Color.WHITE : new Color(250, 250, 250)); // Alternate row colors
+                }
+
+                // Add padding to the cell
+                setBorder(BorderFactory.createEmptyBorder(0, 5, 0, 5));
+                return c;
+            }
+        };
+
+        // Apply the renderer to all columns
+        for (int i = 0; i < table.getColumnCount(); i++) {
+            table.getColumnModel().getColumn(i).setCellRenderer(cellRenderer);
+        }
+
+        return table;
+    }
+
+
+    private JButton createStyledButton(String text) {
+        JButton button = new JButton(text);
+        button.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        button.setBackground(new Color(51, 122, 183));
+        button.setForeground(Color.BLACK);
+        button.setFocusPainted(false);
+        button.setBorder(BorderFactory.createEmptyBorder(8, 15, 8, 15));
+        button.setOpaque(true);
+
+        button.addMouseListener(new java.awt.event.MouseAdapter() {
+            public void mouseEntered(java.awt.event.MouseEvent evt) {
+                button.setBackground(new Color(40, 96, 144));
+            }
+            public void mouseExited(java.awt.event.MouseEvent evt) {
+                button.setBackground(new Color(51, 122, 183));
+            }
+        });
+
+        return button;
+    }
+
+    private JTextField createStyledTextField() {
+        JTextField textField = new JTextField(20);
+        textField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        textField.setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createLineBorder(new Color(51, 122, 183)),
+                BorderFactory.createEmptyBorder(5, 5, 5, 5)
+        ));
+        return textField;
+    }
+
+    private JPanel createBooksPanel() {
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+        panel.setBackground(Color.WHITE);
+        panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        // Search Panel
+        JPanel searchPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        searchPanel.setBackground(Color.WHITE);
+
+        JTextField searchField = createStyledTextField();
+        JButton searchButton = createStyledButton("Search Books");
+
+        searchPanel.add(new JLabel("Search: "));
+        searchPanel.add(searchField);
+        searchPanel.add(searchButton);
+
+        bookSearch = new LiveSearch<>(searchField, entityManagerProvider, manageBook::searchBookSummariesByTitle,
+                books -> {
+                    // A listing still loading must not replace the results
+                    loader.cancel("books");
+                    showBooks(books);
+                }, this::loadBooks);
+        searchButton.addActionListener(e -> bookSearch.searchNow());
+        searchField.addActionListener(e -> bookSearch.searchNow());
+
+        // Button Panel
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        buttonPanel.setBackground(Color.WHITE);
+
+        JButton addButton = createStyledButton("Add Book");
+        JButton editButton = createStyledButton("Edit Book");
+        JButton deleteButton = createStyledButton("Delete Book");
+        JButton manageCopiesButton = createStyledButton("Manage Copies");
+
+        buttonPanel.add(addButton);
+        buttonPanel.add(editButton);
+        buttonPanel.add(deleteButton);
+        buttonPanel.add(manageCopiesButton);
+
+        // Action listeners
+        addButton.addActionListener(e -> showAddBookDialog());
+        editButton.addActionListener(e -> showEditBookDialog());
+        deleteButton.addActionListener(e -> deleteSelectedBook());
+        manageCopiesButton.addActionListener(e -> showManageCopiesDialog());
+
+        // Books Table
+        String[] bookColumns = {
+                "ID", "Title", "Author", "ISBN", "Publication Year",
+                "Publisher", "Total Copies", "Available Copies"
+        };
+
+        booksTableModel = new PagedTableModel<>(bookColumns) {
+            @Override
+            protected Object getColumnValue(BookSummary book, int column) {
+                return switch (column) {
+                    case 0 -> book.id();
+                    case 1 -> book.title();
+                    case 2 -> book.author();
+                    case 3 -> book.isbn();
+                    case 4 -> book.publicationYear();
+                    case 5 -> book.publisherName() != null ? book.publisherName() : "";
+                    case 6 -> book.totalCopies();
+                    default -> book.availableCopies();
+                };
+            }
+        };
+
+        booksTable = createStyledTable(booksTableModel);
+        JScrollPane scrollPane = new JScrollPane(booksTable);
+        scrollPane.setBorder(BorderFactory.createLineBorder(new Color(230, 230, 230)));
+
+        // Control Panel
+        JPanel controlPanel = new JPanel(new BorderLayout());
+        controlPanel.setBackground(Color.WHITE);
+        controlPanel.add(searchPanel, BorderLayout.NORTH);
+        controlPanel.add(buttonPanel, BorderLayout.CENTER);
+
+        panel.add(controlPanel, BorderLayout.NORTH);
+        panel.add(scrollPane, BorderLayout.CENTER);
+
+        return panel;
+    }
+
+    private JPanel createUsersPanel() {
+        JPanel panel = new JPanel(new BorderLayout(5, 5));
+        panel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+
+        // Create table model for users
+        String[] userColumns = {
+                "ID", "Name", "Email", "Phone", "Address", "Role", "Active Borrowings"
+        };
+        usersTableModel = new DefaultTableModel(userColumns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        usersTable = createStyledTable(usersTableModel);
+        usersTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+
+        // Add scroll pane for table
+        JScrollPane scrollPane = new JScrollPane(usersTable);
+        panel.add(scrollPane, BorderLayout.CENTER);
+
+        // Create button panel
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        JButton addButton = new JButton("Add User");
+        JButton editButton = new JButton("Edit User");
+        JButton deleteButton = new JButton("Delete User");
+        JButton makeLibrarianButton = new JButton("Make Librarian");
+
+        buttonPanel.add(addButton);
+        buttonPanel.add(editButton);
+        buttonPanel.add(deleteButton);
+        buttonPanel.add(makeLibrarianButton);
+
+        // Add action listeners
+        addButton.addActionListener(e -> showAddUserDialog());
+        editButton.addActionListener(e -> showEditUserDialog());
+        deleteButton.addActionListener(e -> deleteSelectedUser());
+        makeLibrarianButton.addActionListener(e -> makeSelectedUserLibrarian());
+
+        panel.add(buttonPanel, BorderLayout.NORTH);
+
+        return panel;
+    }
+
+    private JPanel createBorrowingsPanel() {
+        JPanel panel = new JPanel(new BorderLayout(5, 5));
+        panel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+
+        // Create table model for borrowings
+        String[] borrowingColumns = {
+                "ID", "User", "Book Title", "Borrow Date", "Due Date",
+                "Return Date", "Status", "Late Fee"
+        };
+        borrowingsTableModel = new DefaultTableModel(borrowingColumns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            @Override
+            public Class<?> getColumnClass(int columnIndex) {
+                // Remove the special handling for the late fee column
+                return String.class;
+            }
+        };
+        borrowingsTable = createStyledTable(borrowingsTableModel);
+        borrowingsTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+
+        // Add scroll pane for table
+        JScrollPane scrollPane = new JScrollPane(borrowingsTable);
+        panel.add(scrollPane, BorderLayout.CENTER);
+
+        // Create top control panel
+        JPanel topControlPanel = new JPanel(new BorderLayout());
+
+        // Create button panel
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        JButton newBorrowingButton = new JButton("New Borrowing");
+        JButton returnBookButton = new JButton("Return Book");
+        JButton renewButton = new JButton("Renew Borrowing");
+
+        buttonPanel.add(newBorrowingButton);
+        buttonPanel.add(returnBookButton);
+        buttonPanel.add(renewButton);
+
+
+        // Create filter panel
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        showReturnedCheckBox = new JCheckBox("Show Returned");
+        showOverdueCheckBox = new JCheckBox("Show Overdue Only");
+        filterPanel.add(showReturnedCheckBox);
+        filterPanel.add(showOverdueCheckBox);
+
+        // Add panels to top control panel
+        topControlPanel.add(buttonPanel, BorderLayout.WEST);
+        topControlPanel.add(filterPanel, BorderLayout.EAST);
+
+        // Add action listeners
+        newBorrowingButton.addActionListener(e -> showNewBorrowingDialog());
+        returnBookButton.addActionListener(e -> showReturnBookDialog());
+        renewButton.addActionListener(e -> renewSelectedBorrowing());
+
+        // Add filter listeners
+        showReturnedCheckBox.addActionListener(e -> loadBorrowings());
+        showOverdueCheckBox.addActionListener(e -> loadBorrowings());
+
+        panel.add(topControlPanel, BorderLayout.NORTH);
+
+        return panel;
+    }
+
+
+
+    private void createMenuBar() {
+        JMenuBar menuBar = new JMenuBar();
+        menuBar.setBackground(Color.GRAY);
+        menuBar.setBorder(null);
+
+        // File Menu
+        JMenu fileMenu = new JMenu("File");
+        fileMenu.setForeground(Color.WHITE);
+        fileMenu.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+
+        JMenuItem refreshItem = new JMenuItem("Refresh Data");
+        JMenuItem exitItem = new JMenuItem("Exit");
+
+        styleMenuItem(refreshItem);
+        styleMenuItem(exitItem);
+
+        refreshItem.addActionListener(e -> refreshData());
+        exitItem.addActionListener(e -> System.exit(0));
+
+        fileMenu.add(refreshItem);
+        fileMenu.addSeparator();
+        fileMenu.add(exitItem);
+
+        // Reports Menu
+        JMenu reportsMenu = new JMenu("Reports");
+        reportsMenu.setForeground(Color.WHITE);
+        reportsMenu.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+
+        menuBar.add(fileMenu);
+        menuBar.add(reportsMenu);
+
+        setJMenuBar(menuBar);
+    }
+
+    private void styleMenuItem(JMenuItem item) {
+        item.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        item.setBackground(Color.WHITE);
+        item.setForeground(Color.BLACK);
+    }
+
+    private void activateTab(int tab) {
+        if (!tabLoaded[tab]) {
+            tabLoaded[tab] = true;
+            loadTab(tab);
+        } else if (tabStale[tab]) {
+            refreshTab(tab);
+        }
+        tabStale[tab] = false;
+    }
+
+    private void refreshData() {
+        bookSearch.clearCache();
+        int visibleTab = tabbedPane.getSelectedIndex();
+        for (int tab = 0; tab < tabLoaded.length; tab++) {
+            tabStale[tab] = tabLoaded[tab] && tab != visibleTab;
+        }
+        refreshTab(visibleTab);
+    }
+
+    private void loadTab(int tab) {
+        switch (tab) {
+            case BOOKS_TAB -> loadBooks();
+            case USERS_TAB -> loadUsers();
+            case BORROWINGS_TAB -> loadBorrowings();
+        }
+    }
+
+    private void refreshTab(int tab) {
+        switch (tab) {
+            case BOOKS_TAB -> refreshBooks();
+            case USERS_TAB -> refreshUsers();
+            case BORROWINGS_TAB -> refreshBorrowings();
+        }
+    }
+
+    // Each load and refresh reads the change stamps before the rows, so a change racing with it
+    // shows up as a changed stamp at the next refresh rather than being missed
+    private void loadBooks() {
+        // The book table pages through the whole catalog itself; a pending search must not replace it
+        loader.load("books", manageBook::getSummaryChangeStamps, stamps -> {
+            bookStamps = stamps;
+            showingBookSearch = false;
+            booksTableModel.setSource(new BookPageSource(manageBook, entityManagerProvider));
+        });
+    }
+
+    private void refreshBooks() {
+        if (showingBookSearch) {
+            bookSearch.searchNow();
+            return;
+        }
+        if (bookStamps == null) {
+            loadBooks();
+            return;
+        }
+        // Only the pages on screen are cached, so a changed catalog just reloads those
+        loader.load("books", manageBook::getSummaryChangeStamps, stamps -> {
+            if (!stamps.equals(bookStamps)) {
+                bookStamps = stamps;
+                booksTableModel.refresh();
+            }
+        });
+    }
+
+    private void showBooks(List<BookSummary> books) {
+        showingBookSearch = true;
+        booksTableModel.setSource(PagedTableModel.listSource(books));
+    }
+
+    private void loadUsers() {
+        Date startedAt = new Date();
+        loader.load("users", () -> {
+            ChangeStamp stamp = userService.getUserChangeStamp();
+            return new UserChanges(stamp, userService.retrieveUserSummaries(), null, null);
+        }, changes -> {
+            showUsers(changes.changed());
+            userStamp = changes.stamp();
+            usersRefreshedAt = startedAt;
+        });
+    }
+
+    private void refreshUsers() {
+        if (userStamp == null) {
+            loadUsers();
+            return;
+        }
+        ChangeStamp previousStamp = userStamp;
+        Date since = modifiedSince(usersRefreshedAt);
+        Date startedAt = new Date();
+        loader.load("users", () -> {
+            // Promotions do not touch the user rows, so the librarian role is checked for every row
+            IdSet librarians = userService.retrieveLibrarianUserIds();
+            ChangeStamp stamp = userService.getUserChangeStamp();
+            if (stamp.equals(previousStamp)) {
+                return new UserChanges(stamp, List.of(), null, librarians);
+            }
+            return new UserChanges(stamp, userService.retrieveUserSummariesModifiedSince(since),
+                    userService.retrieveUserIds(), librarians);
+        }, changes -> {
+            if (changes.ids() != null) {
+                List<Object[]> rows = new ArrayList<>();
+                changes.changed().forEach(user -> rows.add(userRow(user)));
+                TableDiff.apply(usersTableModel, rows, changes.ids());
+            }
+            for (int row = 0; row < usersTableModel.getRowCount(); row++) {
+                String role = changes.librarians().contains((Integer) usersTableModel.getValueAt(row, 0))
+                        ? "Librarian" : "User";
+                if (!role.equals(usersTableModel.getValueAt(row, 5))) {
+                    usersTableModel.setValueAt(role, row, 5);
+                }
+            }
+            userStamp = changes.stamp();
+            usersRefreshedAt = startedAt;
+        });
+    }
+
+    private void showUsers(List<UserSummary> users) {
+        usersTableModel.setRowCount(0);
+        for (UserSummary user : users) {
+            usersTableModel.addRow(userRow(user));
+        }
+    }
+
+    private Object[] userRow(UserSummary user) {
+        return new Object[]{
+                user.id(),
+                user.name(),
+                user.email(),
+                user.phoneNumber(),
+                user.address(),
+                user.librarian() ? "Librarian" : "User",
+                user.lifetimeLoans()
+        };
+    }
+
+    private void loadBorrowings() {
+        // The filters are read here on the EDT, not by the background query
+        boolean showOverdue = showOverdueCheckBox.isSelected();
+        boolean showReturned = showReturnedCheckBox.isSelected();
+        boolean showCurrent = showOverdue || !showReturned;
+        Date startedAt = new Date();
+        loader.load("borrowings", () -> {
+            List<ChangeStamp> stamps = manageBorrowing.getBorrowingChangeStamps();
+            List<Borrowing> borrowings;
+            if (showOverdue) {
+                // Add logic for overdue borrowings if needed
+                borrowings = manageBorrowing.getCurrentBorrowings(); // Placeholder
+            } else if (!showReturned) {
+                borrowings = manageBorrowing.getCurrentBorrowings();
+            } else {
+                borrowings = manageBorrowing.getUserBorrowingHistory(null); // Ensure this handles null correctly
+            }
+            return new BorrowingChanges(stamps, borrowings, null);
+        }, changes -> {
+            showBorrowings(changes.changed());
+            borrowingStamps = changes.stamps();
+            borrowingsRefreshedAt = startedAt;
+            showingCurrentBorrowings = showCurrent;
+        });
+    }
+
+    private void refreshBorrowings() {
+        // Only the current borrowings can be refreshed incrementally; the history view is reloaded
+        if (!showingCurrentBorrowings || borrowingStamps == null) {
+            loadBorrowings();
+            return;
+        }
+        List<ChangeStamp> previousStamps = borrowingStamps;
+        Date since = modifiedSince(borrowingsRefreshedAt);
+        Date startedAt = new Date();
+        loader.load("borrowings", () -> {
+            List<ChangeStamp> stamps = manageBorrowing.getBorrowingChangeStamps();
+            if (stamps.equals(previousStamps)) {
+                return new BorrowingChanges(stamps, List.of(), null);
+            }
+            return new BorrowingChanges(stamps, manageBorrowing.getCurrentBorrowingsModifiedSince(since),
+                    manageBorrowing.getCurrentBorrowingIds());
+        }, changes -> {
+            if (changes.ids() != null) {
+                List<Object[]> rows = new ArrayList<>();
+                changes.changed().forEach(borrowing -> rows.add(borrowingRow(borrowing)));
+                TableDiff.apply(borrowingsTableModel, rows, changes.ids());
+            }
+            borrowingStamps = changes.stamps();
+            borrowingsRefreshedAt = startedAt;
+        });
+    }
+
+    private void showBorrowings(List<Borrowing> borrowings) {
+        borrowingsTableModel.setRowCount(0);
+        for (Borrowing borrowing : borrowings) {
+            borrowingsTableModel.addRow(borrowingRow(borrowing));
+        }
+    }
+
+    private Object[] borrowingRow(Borrowing borrowing) {
+        return new Object[]{
+                borrowing.getId(),
+                borrowing.getUser().getName(),
+                borrowing.getCopy().getBook().getTitle(),
+                formatDate(borrowing.getBorrowDate()),
+                formatDate(null), // Replace with actual due date if needed
+                formatDate(borrowing.getReturnDate()),
+                borrowing.getReturnDate() == null ? "Active" : "Returned",
+                "-" // Replace with actual fee logic if needed
+        };
+    }
+
+    private Date modifiedSince(Date refreshedAt) {
+        return new Date(refreshedAt.getTime() - LibraryConfigLoader.getRefreshOverlapMillis());
+    }
+
+    // Changes committed by the services patch just the rows showing them, on tabs that have been loaded.
+    // The bus calls the listeners on the committing thread, so they hand the change to the EDT
+    private void subscribeToChanges() {
+        ChangeBus bus = ChangeBus.getInstance();
+        subscriptions.add(bus.subscribe(Book.class, change -> SwingUtilities.invokeLater(() -> bookChanged(change))));
+        subscriptions.add(bus.subscribe(User.class, change -> SwingUtilities.invokeLater(() -> userChanged(change))));
+        subscriptions.add(bus.subscribe(Borrowing.class,
+                change -> SwingUtilities.invokeLater(() -> borrowingChanged(change))));
+    }
+
+    private void bookChanged(EntityChange change) {
+        bookSearch.clearCache();
+        if (!tabLoaded[BOOKS_TAB]) {
+            return;
+        }
+        if (change.kind() != EntityChange.Kind.UPDATED) {
+            refreshBooks();
+            return;
+        }
+        Integer bookId = change.id();
+        loader.load("book-" + bookId, () -> manageBook.getBookSummary(bookId), summary -> summary.ifPresent(
+                book -> booksTableModel.replaceRow(row -> row.id().equals(bookId), book)), this::logPatchFailure);
+    }
+
+    private void userChanged(EntityChange change) {
+        if (!tabLoaded[USERS_TAB]) {
+            return;
+        }
+        Integer userId = change.id();
+        loader.load("user-" + userId, () -> userService.retrieveUserSummary(userId), summary -> {
+            if (summary.isPresent()) {
+                TableDiff.upsert(usersTableModel, userRow(summary.get()));
+            } else {
+                TableDiff.remove(usersTableModel, userId);
+            }
+        }, this::logPatchFailure);
+    }
+
+    private void borrowingChanged(EntityChange change) {
+        if (!tabLoaded[BORROWINGS_TAB]) {
+            return;
+        }
+        Integer borrowingId = change.id();
+        loader.load("borrowing-" + borrowingId, () -> manageBorrowing.getBorrowingDetails(borrowingId), borrowing -> {
+            // A returned borrowing leaves the current view
+            if (borrowing.isPresent() && (!showingCurrentBorrowings || borrowing.get().getReturnDate() == null)) {
+                TableDiff.upsert(borrowingsTableModel, borrowingRow(borrowing.get()));
+            } else {
+                TableDiff.remove(borrowingsTableModel, borrowingId);
+            }
+        }, this::logPatchFailure);
+    }
+
+    private void logPatchFailure(Exception e) {
+        // The next refresh brings the row up to date anyway, so this is not worth a dialog
+        System.err.println("Error updating a changed row: " + e.getMessage());
+    }
+
+    @Override
+    public void dispose() {
+        subscriptions.forEach(ChangeBus.Subscription::unsubscribe);
+        loader.cancelAll();
+        booksTableModel.cancelLoads();
+        bookSearch.dispose();
+        super.dispose();
+    }
+
+
+    private String formatDate(Date date) {
+        if (date == null) return "-";
+        return new java.text.SimpleDateFormat("yyyy-MM-dd").format(date);
+    }
+
+    // Dialog methods
+    private void showAddBookDialog() {
+        BookOperationFrame dialog = new BookOperationFrame(this, null, manageBook, managePublisher);
+        dialog.setVisible(true);
+        if (dialog.isBookSaved()) {
+            refreshData();
+        }
+    }
+
+    private void showEditBookDialog() {
+        int selectedRow = booksTable.getSelectedRow();
+        if (selectedRow == -1) {
+            JOptionPane.showMessageDialog(this, "Please select a book to edit", "No Selection", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        Integer bookId = (Integer) booksTable.getValueAt(selectedRow, 0);
+        manageBook.getBookById(bookId).ifPresent(book -> {
+            BookOperationFrame dialog = new BookOperationFrame(this, book, manageBook, managePublisher);
+            dialog.setVisible(true);
+            if (dialog.isBookSaved()) {
+                refreshData();
+            }
+        });
+    }
+
+    private void deleteSelectedBook() {
+        int selectedRow = booksTable.getSelectedRow();
+        if (selectedRow == -1) {
+            JOptionPane.showMessageDialog(this, "Please select a book to delete", "No Selection", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        Integer bookId = (Integer) booksTable.getValueAt(selectedRow, 0);
+        try {
+            manageBook.deleteBook(bookId);
+            refreshData();
+            JOptionPane.showMessageDialog(this, "Book deleted successfully", "Deletion Successful", JOptionPane.INFORMATION_MESSAGE);
+        } catch (Exception e) {
+            JOptionPane.showMessageDialog(this, "Error deleting book: " + e.getMessage(), "Deletion Failed", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    // Helper methods
+    private Date calculateDueDate(Date borrowDate) {
+        // Implement actual calculation, e.g., 14 days from borrow date
+        long millisInDay = 24 * 60 * 60 * 1000;
+        return new Date(borrowDate.getTime() + (14 * millisInDay));
+    }
+
+    private String formatLateFee(double fee) {
+        return fee > 0 ? String.format("$%.2f", fee) : "-";
+    }
+
+
+    private void showLibraryStats() {
+        List<Book> allBooks = manageBook.getAllBooks();
+        List<User> allUsers = userService.retrieveAllUsers();
+        List<Borrowing> activeBorrowings = manageBorrowing.getCurrentBorrowings();
+
+        StringBuilder stats = new StringBuilder("Library Statistics\n\n");
+        stats.append(String.format("Total Books: %d\n", allBooks.size()));
+        stats.append(String.format("Total Users: %d\n", allUsers.size()));
+        stats.append(String.format("Active Borrowings: %d\n", activeBorrowings.size()));
+
+        JTextArea textArea = new JTextArea(stats.toString());
+        textArea.setEditable(false);
+
+        JOptionPane.showMessageDialog(this, new JScrollPane(textArea),
+                "Library Statistics", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+
+
+    /**
+     * Opens the Manage Copies dialog for the selected book.
+     */
+    private void showManageCopiesDialog() {
+        int selectedRow = booksTable.getSelectedRow();
+        if (selectedRow == -1) {
+            JOptionPane.showMessageDialog(this, "Please select a book to manage its copies", "No Selection", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        Integer bookId = (Integer) booksTable.getValueAt(selectedRow, 0);
+        manageBook.getBookById(bookId).ifPresent(book -> {
+            CopyOperationFrame dialog = new CopyOperationFrame(this, book, manageCopy);
+            dialog.setVisible(true);
+        });
+    }
+
+    private void showAddUserDialog() {
+        UserOperationFrame dialog = new UserOperationFrame(this, null, userService);
+        dialog.setVisible(true);
+        if (dialog.isUserSaved()) {
+            refreshData();
+        }
+    }
+
+    private void showEditUserDialog() {
+        int selectedRow = usersTable.getSelectedRow();
+        if (selectedRow == -1) {
+            JOptionPane.showMessageDialog(this, "Please select a user to edit", "No Selection", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        Integer userId = (Integer) usersTable.getValueAt(selectedRow, 0);
+        userService.findUserById(userId).ifPresent(user -> {
+            UserOperationFrame dialog = new UserOperationFrame(this, user, userService);
+            dialog.setVisible(true);
+            if (dialog.isUserSaved()) {
+                refreshData();
+            }
+        });
+    }
+
+    private void deleteSelectedUser() {
+        int selectedRow = usersTable.getSelectedRow();
+        if (selectedRow == -1) {
+            JOptionPane.showMessageDialog(this, "Please select a user to delete", "No Selection", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        Integer userId = (Integer) usersTable.getValueAt(selectedRow, 0);
+        try {
+            userService.removeUserById(userId);
+            refreshData();
+            JOptionPane.showMessageDialog(this, "User deleted successfully", "Deletion Successful", JOptionPane.INFORMATION_MESSAGE);
+        } catch (Exception e) {
+            JOptionPane.showMessageDialog(this, "Error deleting user: " + e.getMessage(), "Deletion Failed", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void makeSelectedUserLibrarian() {
+        int selectedRow = usersTable.getSelectedRow();
+        if (selectedRow == -1) {
+            JOptionPane.showMessageDialog(this,
+                    "Please select a user to promote",
+                    "No Selection",
+                    JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        Integer userId = (Integer) usersTable.getValueAt(selectedRow, 0);
+        int choice = JOptionPane.showConfirmDialog(
+                this,
+                "Make this user a senior librarian?",
+                "Librarian Type",
+                JOptionPane.YES_NO_CANCEL_OPTION
+        );
+
+        if (choice != JOptionPane.CANCEL_OPTION) {
+            try {
+                userService.promoteUserToLibrarian(userId, choice == JOptionPane.YES_OPTION);
+                refreshData();
+                JOptionPane.showMessageDialog(this,
+                        "User promoted successfully",
+                        "Success",
+                        JOptionPane.INFORMATION_MESSAGE);
+            } catch (Exception e) {
+                JOptionPane.showMessageDialog(this,
+                        "Error promoting user: " + e.getMessage(),
+                        "Error",
+                        JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
+
+    private void showReturnBookDialog() {
+        int selectedRow = borrowingsTable.getSelectedRow();
+        if (selectedRow == -1) {
+            JOptionPane.showMessageDialog(this, "Please select a borrowing to return", "No Selection", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        Integer borrowingId = (Integer) borrowingsTable.getValueAt(selectedRow, 0);
+        runCirculation("return-" + borrowingId, () -> manageBorrowing.returnBook(borrowingId, new Date()),
+                borrowing -> JOptionPane.showMessageDialog(this, "Book returned successfully", "Return Successful", JOptionPane.INFORMATION_MESSAGE),
+                e -> JOptionPane.showMessageDialog(this, "Error returning book: " + e.getMessage(), "Return Failed", JOptionPane.ERROR_MESSAGE));
+    }
+
+    private void renewSelectedBorrowing() {
+        int selectedRow = borrowingsTable.getSelectedRow();
+        if (selectedRow == -1) {
+            JOptionPane.showMessageDialog(this, "Please select a borrowing to renew", "No Selection", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        Integer borrowingId = (Integer) borrowingsTable.getValueAt(selectedRow, 0);
+        runCirculation("renew-" + borrowingId, () -> manageBorrowing.renewBorrowing(borrowingId), borrowing -> {
+            JOptionPane.showMessageDialog(this, "Borrowing renewed successfully", "Renewal Successful", JOptionPane.INFORMATION_MESSAGE);
+            refreshData();
+        }, e -> JOptionPane.showMessageDialog(this, "Error renewing borrowing: " + e.getMessage(), "Renewal Failed", JOptionPane.ERROR_MESSAGE));
+    }
+
+    // Circulation operations retry with backoff when another desk got there first, so they run off the EDT.
+    // A second click while one is still running for the same borrowing is ignored
+    private void runCirculation(String key, Callable<Borrowing> operation, Consumer<Borrowing> onDone,
+                                Consumer<Exception> onFailed) {
+        if (!loader.isLoading(key)) {
+            loader.load(key, operation, onDone, onFailed);
+        }
+    }
+
+    private void showNewBorrowingDialog() {
+        BorrowingOperationFrame dialog = new BorrowingOperationFrame(this, userService, manageBook, manageCopy, manageBorrowing, librarian);
+        dialog.setVisible(true);
+    }
+}
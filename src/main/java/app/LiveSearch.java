@@ -0,0 +1,182 @@
+package app;
+
+import manager.EntityManagerProvider;
+import manager.LibraryConfigLoader;
+import org.hibernate.Session;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.JTextComponent;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Search-as-you-type for a text field.
+ * <p>
+ * The search runs once the user pauses typing. At most one search query runs at a time: when a newer term arrives
+ * while one is running, the running query is cancelled at the database and the newest term is searched as soon as
+ * it has stopped; terms typed in between are never searched. Results are kept in a small LRU cache keyed by the
+ * search term, so retyping a term, as when deleting back to an earlier prefix, needs no query at all.
+ * <p>
+ * Must be used on the EDT; the callbacks also run there.
+ *
+ * @param <T> the type of the search results.
+ */
+public class LiveSearch<T> {
+    private final JTextComponent field;
+    private final EntityManagerProvider entityManagerProvider;
+    private final Function<String, T> query;
+    private final Consumer<T> onResults;
+    private final Runnable onCleared;
+    private final Timer timer;
+    private final AsyncLoader loader = new AsyncLoader();
+    private final Map<String, T> cache;
+
+    // The term whose query is running, the newest term waiting for it and the term the results are wanted for
+    private String runningTerm;
+    private String pendingTerm;
+    private String wantedTerm;
+    private final AtomicReference<Session> runningSession = new AtomicReference<>();
+
+    /**
+     * Attaches a live search to a text field.
+     *
+     * @param field the field the search term is typed into.
+     * @param entityManagerProvider the provider the query runs against.
+     * @param query the search; it runs off the EDT and must only use the given provider.
+     * @param onResults called with the results for the term in the field.
+     * @param onCleared called when the field is cleared.
+     */
+    public LiveSearch(JTextComponent field, EntityManagerProvider entityManagerProvider, Function<String, T> query,
+                      Consumer<T> onResults, Runnable onCleared) {
+        this.field = field;
+        this.entityManagerProvider = entityManagerProvider;
+        this.query = query;
+        this.onResults = onResults;
+        this.onCleared = onCleared;
+
+        int cacheSize = LibraryConfigLoader.getSearchCacheSize();
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, T> eldest) {
+                return size() > cacheSize;
+            }
+        };
+
+        timer = new Timer(LibraryConfigLoader.getSearchDebounceMillis(), e -> searchNow());
+        timer.setRepeats(false);
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                timer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                timer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                timer.restart();
+            }
+        });
+    }
+
+    /**
+     * Searches for the term in the field right away, for a search button or the Enter key.
+     */
+    public void searchNow() {
+        timer.stop();
+        String term = field.getText().trim();
+        wantedTerm = term;
+        pendingTerm = null;
+        if (term.isEmpty()) {
+            cancelRunningQuery();
+            onCleared.run();
+            return;
+        }
+
+        T cached = cache.get(term);
+        if (cached != null) {
+            cancelRunningQuery();
+            onResults.accept(cached);
+        } else if (runningTerm != null) {
+            pendingTerm = term;
+            cancelRunningQuery();
+        } else {
+            run(term);
+        }
+    }
+
+    /**
+     * Forgets the cached results, for example after the searched data has changed.
+     */
+    public void clearCache() {
+        cache.clear();
+    }
+
+    /**
+     * Stops the search, for example when the field's window is closed.
+     */
+    public void dispose() {
+        timer.stop();
+        pendingTerm = null;
+        wantedTerm = null;
+        cancelRunningQuery();
+        loader.cancelAll();
+    }
+
+    private void run(String term) {
+        runningTerm = term;
+        loader.load("search", () -> entityManagerProvider.call(em -> {
+            // The services called by the query join this unit of work, so this session runs all of its statements
+            runningSession.set(em.unwrap(Session.class));
+            try {
+                return query.apply(term);
+            } finally {
+                runningSession.set(null);
+            }
+        }), results -> {
+            cache.put(term, results);
+            finish(term, results);
+        }, e -> {
+            if (term.equals(wantedTerm)) {
+                System.err.println("Error searching for \"" + term + "\": " + e.getMessage());
+            }
+            finish(term, null);
+        });
+    }
+
+    private void finish(String term, T results) {
+        runningTerm = null;
+        if (results != null && term.equals(wantedTerm)) {
+            onResults.accept(results);
+        }
+        if (pendingTerm != null) {
+            String next = pendingTerm;
+            pendingTerm = null;
+            T cached = cache.get(next);
+            if (cached != null) {
+                onResults.accept(cached);
+            } else {
+                run(next);
+            }
+        }
+    }
+
+    private void cancelRunningQuery() {
+        Session session = runningSession.get();
+        if (session != null) {
+            try {
+                session.cancelQuery();
+            } catch (RuntimeException e) {
+                // The query finished in the meantime; its results are dropped anyway
+            }
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package app;
+
+import manager.EntityManagerProvider;
+import manager.LibraryConfigLoader;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Table model that holds only the pages of rows around the visible part of a table.
+ * <p>
+ * Rows are fetched from a {@link PageSource} a page at a time, when the table first asks for them, and the most
+ * recently used pages are kept; older pages are dropped once more than the configured number are cached. While the
+ * user scrolls through a page, the next one is prefetched. Pages are loaded off the event dispatch thread through an
+ * {@link AsyncLoader}; a row whose page is still loading reads as empty until the page arrives.
+ * <p>
+ * Page requests are collected until the table has stopped asking for new pages for {@value #REQUEST_DELAY_MS} ms,
+ * and at most {@value #MAX_RUNNING_LOADS} page queries run at a time. Further pages wait their turn, and the waiting
+ * page nearest to the one the table asked for last goes first. Whenever the table asks for a page, waiting loads
+ * more than one page away from it are dropped, and so are running ones if the source names its
+ * {@link PageSource#entityManagerProvider() provider}, which lets their statements be cancelled at the database.
+ * So dragging the scroll bar across a large table never runs more than a few queries at once, and once it stops
+ * only the pages around where it stopped are still fetched.
+ * <p>
+ * Like any Swing model it must only be used on the EDT.
+ *
+ * @param <T> the type of the rows.
+ */
+public abstract class PagedTableModel<T> extends AbstractTableModel {
+    /**
+     * Where the rows of a {@link PagedTableModel} come from. Both methods are called off the EDT.
+     *
+     * @param <T> the type of the rows.
+     */
+    public interface PageSource<T> {
+        /**
+         * @return the total number of rows.
+         * @throws Exception if the rows cannot be counted.
+         */
+        int count() throws Exception;
+
+        /**
+         * Fetches a page of rows.
+         *
+         * @param offset the position of the first row of the page.
+         * @param previous the row just before the page, if it is known, so the page can be fetched by keyset
+         *                 instead of by offset; {@code null} otherwise.
+         * @param limit the maximum number of rows to return.
+         * @return the rows of the page.
+         * @throws Exception if the page cannot be fetched.
+         */
+        List<T> fetchPage(int offset, T previous, int limit) throws Exception;
+
+        /**
+         * @return the provider the queries of this source run against, so a page query that is no longer needed
+         *         can be cancelled at the database; {@code null} if the source does not query the database.
+         */
+        default EntityManagerProvider entityManagerProvider() {
+            return null;
+        }
+    }
+
+    private static final int MAX_RUNNING_LOADS = 2;
+    private static final int REQUEST_DELAY_MS = 50;
+
+    private final String[] columnNames;
+    private final int pageSize;
+    private final int maxCachedPages;
+    private final AsyncLoader loader = new AsyncLoader();
+    private final Map<Integer, List<T>> pages;
+    private final Set<Integer> loadingPages = new HashSet<>();
+    private final Set<Integer> waitingPages = new HashSet<>();
+    private final Timer requestTimer = new Timer(REQUEST_DELAY_MS, e -> startWaitingLoads());
+    private int lastRequestedPage;
+    private PageSource<T> source;
+    private int rowCount;
+    private boolean refreshing;
+
+    /**
+     * Creates a model with the page size and cache size from the library configuration.
+     *
+     * @param columnNames the names of the columns.
+     */
+    protected PagedTableModel(String[] columnNames) {
+        this(columnNames, LibraryConfigLoader.getTablePageSize(), LibraryConfigLoader.getTableCachedPages());
+    }
+
+    /**
+     * Creates a model without rows; they are loaded once a source is set.
+     *
+     * @param columnNames the names of the columns.
+     * @param pageSize the number of rows fetched at a time.
+     * @param maxCachedPages the maximum number of pages kept in memory.
+     */
+    protected PagedTableModel(String[] columnNames, int pageSize, int maxCachedPages) {
+        if (pageSize <= 0 || maxCachedPages < 2) {
+            throw new IllegalArgumentException("Invalid paging: page size " + pageSize + ", cached pages " + maxCachedPages);
+        }
+        this.columnNames = columnNames.clone();
+        this.pageSize = pageSize;
+        this.maxCachedPages = maxCachedPages;
+        requestTimer.setRepeats(false);
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > PagedTableModel.this.maxCachedPages;
+            }
+        };
+    }
+
+    /**
+     * Creates a source that pages through rows already in memory, such as search results.
+     *
+     * @param rows the rows.
+     * @param <T> the type of the rows.
+     * @return a source serving the rows.
+     */
+    public static <T> PageSource<T> listSource(List<T> rows) {
+        List<T> copy = List.copyOf(rows);
+        return new PageSource<>() {
+            @Override
+            public int count() {
+                return copy.size();
+            }
+
+            @Override
+            public List<T> fetchPage(int offset, T previous, int limit) {
+                return copy.subList(Math.min(offset, copy.size()), Math.min(offset + limit, copy.size()));
+            }
+        };
+    }
+
+    /**
+     * Gets the value of a column of a row.
+     *
+     * @param row the row.
+     * @param column the index of the column.
+     * @return the value to display.
+     */
+    protected abstract Object getColumnValue(T row, int column);
+
+    /**
+     * Replaces the source of the rows and reloads the table from it.
+     *
+     * @param source the new source.
+     */
+    public void setSource(PageSource<T> source) {
+        this.source = source;
+        refresh();
+    }
+
+    /**
+     * Reloads the table from its source. The rows loaded so far stay visible until the new row count is known.
+     */
+    public void refresh() {
+        if (source == null) {
+            return;
+        }
+        loader.cancelAll();
+        loadingPages.clear();
+        waitingPages.clear();
+        refreshing = true;
+        loader.load("count", source::count, count -> {
+            pages.clear();
+            rowCount = count;
+            refreshing = false;
+            fireTableDataChanged();
+        }, e -> {
+            refreshing = false;
+            System.err.println("Error counting table rows: " + e.getMessage());
+        });
+    }
+
+    /**
+     * Cancels the pending loads, for example when the table's window is closed.
+     */
+    public void cancelLoads() {
+        requestTimer.stop();
+        loader.cancelAll();
+        loadingPages.clear();
+        waitingPages.clear();
+    }
+
+    /**
+     * Replaces a loaded row in place, for example after it was changed elsewhere. A row whose page is not loaded
+     * is left alone; it is fetched fresh when it is next shown.
+     *
+     * @param matches selects the row to replace.
+     * @param row the new row.
+     * @return whether a loaded row was replaced.
+     */
+    public boolean replaceRow(Predicate<T> matches, T row) {
+        for (Map.Entry<Integer, List<T>> page : pages.entrySet()) {
+            List<T> rows = page.getValue();
+            for (int index = 0; index < rows.size(); index++) {
+                if (matches.test(rows.get(index))) {
+                    rows.set(index, row);
+                    int rowIndex = page.getKey() * pageSize + index;
+                    if (rowIndex < rowCount) {
+                        fireTableRowsUpdated(rowIndex, rowIndex);
+                    }
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets a row if its page is loaded.
+     *
+     * @param row the index of the row.
+     * @return the row, or {@code null} if its page has not been loaded yet.
+     */
+    public T getRow(int row) {
+        List<T> page = pages.get(row / pageSize);
+        if (page == null) {
+            requestPage(row / pageSize);
+            return null;
+        }
+        int index = row % pageSize;
+        if (index >= pageSize / 2) {
+            requestPage(row / pageSize + 1);
+        }
+        return index < page.size() ? page.get(index) : null;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        T row = getRow(rowIndex);
+        return row == null ? null : getColumnValue(row, columnIndex);
+    }
+
+    private void requestPage(int page) {
+        if (refreshing || page * pageSize >= rowCount || pages.containsKey(page)) {
+            return;
+        }
+        lastRequestedPage = page;
+        dropDistantLoads(page);
+        // New pages wait until the table stops asking for others, so a page merely scrolled past is never fetched
+        if (!loadingPages.contains(page) && waitingPages.add(page)) {
+            requestTimer.restart();
+        }
+    }
+
+    private void startWaitingLoads() {
+        while (loadingPages.size() < MAX_RUNNING_LOADS && !waitingPages.isEmpty()) {
+            int page = waitingPages.stream()
+                    .min(Comparator.comparingInt(waiting -> Math.abs(waiting - lastRequestedPage)))
+                    .orElseThrow();
+            waitingPages.remove(page);
+            loadingPages.add(page);
+            startLoad(page);
+        }
+    }
+
+    private void startLoad(int page) {
+        // The last row of the previous page lets the source seek by keyset instead of skipping rows
+        List<T> previousPage = pages.get(page - 1);
+        T previous = previousPage == null || previousPage.size() < pageSize ? null : previousPage.get(pageSize - 1);
+        int offset = page * pageSize;
+        PageSource<T> pageSource = source;
+        Callable<List<T>> query = () -> new ArrayList<>(pageSource.fetchPage(offset, previous, pageSize));
+        Consumer<List<T>> onLoaded = rows -> {
+            loadingPages.remove(page);
+            pages.put(page, rows);
+            if (offset < rowCount) {
+                fireTableRowsUpdated(offset, Math.min(offset + pageSize, rowCount) - 1);
+            }
+            startWaitingLoads();
+        };
+        Consumer<Exception> onFailed = e -> {
+            loadingPages.remove(page);
+            System.err.println("Error loading table rows: " + e.getMessage());
+            startWaitingLoads();
+        };
+        EntityManagerProvider entityManagerProvider = pageSource.entityManagerProvider();
+        if (entityManagerProvider != null) {
+            loader.load(pageKey(page), entityManagerProvider, query, onLoaded, onFailed);
+        } else {
+            loader.load(pageKey(page), query, onLoaded, onFailed);
+        }
+    }
+
+    private void dropDistantLoads(int page) {
+        waitingPages.removeIf(waiting -> Math.abs(waiting - page) > 1);
+        // A query that cannot be cancelled at the database keeps its slot until it is done; its page is kept
+        if (source.entityManagerProvider() == null) {
+            return;
+        }
+        loadingPages.removeIf(loading -> {
+            if (Math.abs(loading - page) <= 1) {
+                return false;
+            }
+            loader.cancel(pageKey(loading));
+            return true;
+        });
+    }
+
+    private static String pageKey(int page) {
+        return "page-" + page;
+    }
+}
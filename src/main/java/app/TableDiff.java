@@ -0,0 +1,109 @@
+package app;
+
+import Repository.IdSet;
+
+import javax.swing.table.DefaultTableModel;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Applies the result of an incremental refresh, or a single changed row, to a {@link DefaultTableModel} whose first
+ * column holds the row ID.
+ * Only the rows that were deleted, inserted or changed fire table events, so the rest of the table keeps its
+ * selection and is not repainted.
+ */
+final class TableDiff {
+    private TableDiff() {
+    }
+
+    /**
+     * Brings the model in line with the current rows.
+     *
+     * @param model the model to update.
+     * @param changedRows the rows inserted or modified since the model was last refreshed.
+     * @param liveIds the IDs of all rows that belong in the model; rows with other IDs are removed.
+     * @return the number of rows removed, inserted or updated.
+     */
+    static int apply(DefaultTableModel model, List<Object[]> changedRows, IdSet liveIds) {
+        int applied = 0;
+        for (int row = model.getRowCount() - 1; row >= 0; row--) {
+            if (!liveIds.contains((Integer) model.getValueAt(row, 0))) {
+                model.removeRow(row);
+                applied++;
+            }
+        }
+
+        Map<Object, Integer> rowsById = new HashMap<>();
+        for (int row = 0; row < model.getRowCount(); row++) {
+            rowsById.put(model.getValueAt(row, 0), row);
+        }
+        for (Object[] changed : changedRows) {
+            if (!liveIds.contains((Integer) changed[0])) {
+                continue;
+            }
+            Integer row = rowsById.get(changed[0]);
+            if (row == null) {
+                model.addRow(changed);
+                rowsById.put(changed[0], model.getRowCount() - 1);
+                applied++;
+            } else if (update(model, row, changed)) {
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Inserts a row, or updates the row with the same ID.
+     *
+     * @param model the model to update.
+     * @param values the row.
+     * @return whether the model changed.
+     */
+    static boolean upsert(DefaultTableModel model, Object[] values) {
+        int row = indexOf(model, values[0]);
+        if (row < 0) {
+            model.addRow(values);
+            return true;
+        }
+        return update(model, row, values);
+    }
+
+    /**
+     * Removes the row with the given ID, if the model has one.
+     *
+     * @param model the model to update.
+     * @param id the ID of the row.
+     * @return whether a row was removed.
+     */
+    static boolean remove(DefaultTableModel model, Integer id) {
+        int row = indexOf(model, id);
+        if (row < 0) {
+            return false;
+        }
+        model.removeRow(row);
+        return true;
+    }
+
+    private static int indexOf(DefaultTableModel model, Object id) {
+        for (int row = 0; row < model.getRowCount(); row++) {
+            if (id.equals(model.getValueAt(row, 0))) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean update(DefaultTableModel model, int row, Object[] values) {
+        boolean updated = false;
+        for (int column = 0; column < values.length; column++) {
+            if (!Objects.equals(model.getValueAt(row, column), values[column])) {
+                model.setValueAt(values[column], row, column);
+                updated = true;
+            }
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,243 @@
+package manager;
+
+import table.Book;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over book titles and authors.
+ * Each word of a title or author is mapped to the IDs of the books containing it, so a search only touches the
+ * postings of the words it asks for instead of scanning every book. Words are kept sorted, so a search word also
+ * matches the longer words it starts, which suits searching while the user is still typing.
+ * The shared instance is filled at startup and kept current by {@link ManageBook}.
+ */
+public class BookSearchIndex {
+    private static final BookSearchIndex INSTANCE = new BookSearchIndex();
+
+    private static final int TITLE_WEIGHT = 2;
+    private static final int AUTHOR_WEIGHT = 1;
+    private static final int EXACT_MATCH_FACTOR = 2;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Map<Integer, Integer>> postings = new TreeMap<>();
+    private final Map<Integer, Map<String, Integer>> tokensByBook = new HashMap<>();
+    private volatile boolean built = false;
+
+    private BookSearchIndex() {}
+
+    /**
+     * Gets the index shared by all book services.
+     *
+     * @return the shared index instance.
+     */
+    public static BookSearchIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return true once the index has been filled from the database.
+     */
+    public boolean isBuilt() {
+        return built;
+    }
+
+    /**
+     * Removes all entries and marks the index as not built.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            tokensByBook.clear();
+            built = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Marks the index as complete, so searches are answered from it.
+     */
+    public void markBuilt() {
+        built = true;
+    }
+
+    /**
+     * Adds a book to the index, replacing any entries it had before.
+     *
+     * @param book the book to index; books without an ID are ignored.
+     */
+    public void index(Book book) {
+        if (book == null || book.getId() == null) {
+            return;
+        }
+        Map<String, Integer> tokens = new HashMap<>();
+        addTokens(tokens, book.getTitle(), TITLE_WEIGHT);
+        addTokens(tokens, book.getAuthor(), AUTHOR_WEIGHT);
+
+        lock.writeLock().lock();
+        try {
+            removeEntries(book.getId());
+            for (Map.Entry<String, Integer> token : tokens.entrySet()) {
+                postings.computeIfAbsent(token.getKey(), key -> new HashMap<>()).put(book.getId(), token.getValue());
+            }
+            tokensByBook.put(book.getId(), tokens);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a book from the index.
+     *
+     * @param bookId the ID of the book to remove.
+     */
+    public void remove(Integer bookId) {
+        lock.writeLock().lock();
+        try {
+            removeEntries(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the books whose title or author contains, for every word of the query, a word starting with it.
+     * Books rank higher when words match their title rather than their author, and whole words rather than prefixes.
+     *
+     * @param query the words to search for.
+     * @return the IDs of the matching books, best match first.
+     */
+    public List<Integer> search(String query) {
+        List<String> words = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (words.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Integer, Integer> scores = null;
+            for (String word : words) {
+                Map<Integer, Integer> wordScores = score(word);
+                if (scores == null) {
+                    scores = wordScores;
+                } else {
+                    scores.keySet().retainAll(wordScores.keySet());
+                    scores.replaceAll((bookId, score) -> score + wordScores.get(bookId));
+                }
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+
+            List<Map.Entry<Integer, Integer>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort(Map.Entry.<Integer, Integer>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey()));
+            List<Integer> bookIds = new ArrayList<>(ranked.size());
+            for (Map.Entry<Integer, Integer> entry : ranked) {
+                bookIds.add(entry.getKey());
+            }
+            return bookIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether a query contains at least one word the index can search for.
+     *
+     * @param query the search text.
+     * @return true if the query contains a letter or digit.
+     */
+    public static boolean isSearchable(String query) {
+        return !tokenize(query).isEmpty();
+    }
+
+    /**
+     * @return the number of distinct words in the index.
+     */
+    public int getTokenCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of books in the index.
+     */
+    public int getBookCount() {
+        lock.readLock().lock();
+        try {
+            return tokensByBook.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Integer, Integer> score(String word) {
+        Map<Integer, Integer> scores = new HashMap<>();
+        for (Map.Entry<String, Map<Integer, Integer>> match :
+                postings.subMap(word, true, word + Character.MAX_VALUE, false).entrySet()) {
+            int factor = match.getKey().equals(word) ? EXACT_MATCH_FACTOR : 1;
+            for (Map.Entry<Integer, Integer> posting : match.getValue().entrySet()) {
+                scores.merge(posting.getKey(), posting.getValue() * factor, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private void removeEntries(Integer bookId) {
+        Map<String, Integer> tokens = tokensByBook.remove(bookId);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens.keySet()) {
+            Map<Integer, Integer> books = postings.get(token);
+            if (books != null) {
+                books.remove(bookId);
+                if (books.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+        }
+    }
+
+    private static void addTokens(Map<String, Integer> tokens, String text, int weight) {
+        for (String token : tokenize(text)) {
+            tokens.merge(token, weight, Math::max);
+        }
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * @return a one-line summary of the index size.
+     */
+    @Override
+    public String toString() {
+        return String.format("books=%d, tokens=%d, built=%b", getBookCount(), getTokenCount(), built);
+    }
+}
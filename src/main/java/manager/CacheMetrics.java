@@ -0,0 +1,88 @@
+package manager;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reports hits, misses and puts of every second-level cache region of an {@link EntityManagerFactory}:
+ * one region per cached entity plus the region holding the results of cacheable queries.
+ * Requires {@code hibernate.generate_statistics}; without it all counts stay at zero.
+ */
+public class CacheMetrics {
+    private final Statistics statistics;
+
+    /**
+     * Constructor for initializing the CacheMetrics.
+     *
+     * @param entityManagerFactory The factory whose cache regions are reported.
+     */
+    public CacheMetrics(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * @return the names of the cache regions, sorted.
+     */
+    public String[] getRegionNames() {
+        String[] names = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(names);
+        return names;
+    }
+
+    /**
+     * @param regionName The name of the region.
+     * @return the number of lookups served by the region.
+     */
+    public long getHits(String regionName) {
+        return statistics.getCacheRegionStatistics(regionName).getHitCount();
+    }
+
+    /**
+     * @param regionName The name of the region.
+     * @return the number of lookups the region could not serve.
+     */
+    public long getMisses(String regionName) {
+        return statistics.getCacheRegionStatistics(regionName).getMissCount();
+    }
+
+    /**
+     * @param regionName The name of the region.
+     * @return the share of lookups served by the region, between 0 and 1, or 0 if it was never read.
+     */
+    public double getHitRatio(String regionName) {
+        CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+        long total = region.getHitCount() + region.getMissCount();
+        return total == 0 ? 0 : (double) region.getHitCount() / total;
+    }
+
+    /**
+     * @return the hit ratio of every region, keyed by region name.
+     */
+    public Map<String, Double> getHitRatios() {
+        Map<String, Double> ratios = new LinkedHashMap<>();
+        for (String regionName : getRegionNames()) {
+            ratios.put(regionName, getHitRatio(regionName));
+        }
+        return ratios;
+    }
+
+    /**
+     * @return one line per region with its hits, misses and puts, for logging.
+     */
+    public String describe() {
+        StringBuilder description = new StringBuilder("Second-level cache:");
+        for (String regionName : getRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            description.append(String.format("%n  %s: %d hits, %d misses (%.1f%% hit ratio), %d puts",
+                    regionName, region.getHitCount(), region.getMissCount(), getHitRatio(regionName) * 100,
+                    region.getPutCount()));
+        }
+        return description.toString();
+    }
+}
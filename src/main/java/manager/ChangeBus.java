@@ -0,0 +1,117 @@
+package manager;
+
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import org.hibernate.Session;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * In-process publish/subscribe bus for {@link EntityChange}s, so open views and caches can patch or invalidate
+ * exactly the rows a service changed instead of reloading everything.
+ * <p>
+ * The services publish their changes once the transaction making them has committed; a change that is rolled back
+ * is never seen. Listeners are called on the thread that committed, which may be a background thread, so they must
+ * be quick and hand any Swing work to the EDT.
+ * <p>
+ * Publishing never blocks: the subscribers are held in an immutable list that is swapped atomically when someone
+ * subscribes or unsubscribes, so a publisher only reads the current list.
+ */
+public class ChangeBus {
+    private static final ChangeBus INSTANCE = new ChangeBus();
+
+    private record Subscriber(Class<?> entityType, Consumer<EntityChange> listener) {
+    }
+
+    /**
+     * Handle of a subscription, used to unsubscribe.
+     */
+    @FunctionalInterface
+    public interface Subscription {
+        void unsubscribe();
+    }
+
+    private final AtomicReference<List<Subscriber>> subscribers = new AtomicReference<>(List.of());
+
+    /**
+     * Gets the bus shared by the services and views of the application.
+     *
+     * @return the shared bus.
+     */
+    public static ChangeBus getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Subscribes to the changes of one entity type.
+     *
+     * @param entityType the class of the entities whose changes are wanted.
+     * @param listener called with each change.
+     * @return the subscription, to unsubscribe when the listener goes away.
+     */
+    public Subscription subscribe(Class<?> entityType, Consumer<EntityChange> listener) {
+        Subscriber subscriber = new Subscriber(entityType, listener);
+        subscribers.updateAndGet(current -> {
+            List<Subscriber> updated = new ArrayList<>(current);
+            updated.add(subscriber);
+            return List.copyOf(updated);
+        });
+        return () -> subscribers.updateAndGet(current -> {
+            List<Subscriber> updated = new ArrayList<>(current);
+            updated.remove(subscriber);
+            return List.copyOf(updated);
+        });
+    }
+
+    /**
+     * Publishes changes to the subscribers of their entity types right away.
+     * A failing listener is reported and does not keep the others from being called.
+     *
+     * @param changes the changes.
+     */
+    public void publish(EntityChange... changes) {
+        List<Subscriber> current = subscribers.get();
+        for (EntityChange change : changes) {
+            for (Subscriber subscriber : current) {
+                if (subscriber.entityType() == change.entityType()) {
+                    try {
+                        subscriber.listener().accept(change);
+                    } catch (RuntimeException e) {
+                        System.err.println("Error handling change of " + change.entityType().getSimpleName() +
+                                " " + change.id() + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Publishes changes made in a unit of work once they are committed: after the commit of the transaction that is
+     * active on the EntityManager, or right away if none is, since the changes then already have been committed.
+     *
+     * @param entityManager the EntityManager the changes were made with.
+     * @param changes the changes.
+     */
+    public void publishAfterCommit(EntityManager entityManager, EntityChange... changes) {
+        if (!entityManager.getTransaction().isActive()) {
+            publish(changes);
+            return;
+        }
+        entityManager.unwrap(Session.class).getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    publish(changes);
+                }
+            }
+        });
+    }
+}
@@ -1,18 +1,132 @@
-package manager;
-
-import java.util.concurrent.Callable;
-import java.util.concurrent.locks.ReentrantLock;
-
-public class ConCheck {
-    private static final ReentrantLock borrowingLock = new ReentrantLock();
-
-    public static <T> T lockBorrowing(Callable<T> action) throws Exception {
-        borrowingLock.lock();
-        try {
-            return action.call();
-        } finally {
-            borrowingLock.unlock();
-        }
-    }
-}
-
+package manager;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes circulation operations that touch the same copy or the same user.
+ * Locks are striped: each copy id and user id maps onto one of a fixed set of locks, so operations on unrelated
+ * copies and users run in parallel. The stripes an operation needs are always taken in ascending index order,
+ * which keeps two operations from deadlocking on each other.
+ */
+public class ConCheck {
+    private static final ReentrantLock[] stripes = createStripes(LibraryConfigLoader.getLockStripes());
+
+    private static final LongAdder acquisitions = new LongAdder();
+    private static final LongAdder contended = new LongAdder();
+    private static final LongAdder waitNanos = new LongAdder();
+    private static final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+    private ConCheck() {}
+
+    /**
+     * Runs an action while holding the locks for a user and a copy.
+     *
+     * @param userId The id of the user involved in the operation
+     * @param copyId The id of the copy involved in the operation
+     * @param action The action to run
+     * @return the result of the action.
+     */
+    public static <T> T lockBorrowing(Integer userId, Integer copyId, Callable<T> action) throws Exception {
+        int[] indexes = stripeIndexes(stripeFor(KeyType.USER, userId), stripeFor(KeyType.COPY, copyId));
+        for (int i = 0; i < indexes.length; i++) {
+            try {
+                acquire(stripes[indexes[i]]);
+            } catch (InterruptedException e) {
+                release(indexes, i);
+                Thread.currentThread().interrupt();
+                throw new Exception("Interrupted while waiting for borrowing lock", e);
+            }
+        }
+        try {
+            return action.call();
+        } finally {
+            release(indexes, indexes.length);
+        }
+    }
+
+    private static void acquire(ReentrantLock lock) throws InterruptedException {
+        acquisitions.increment();
+        if (lock.tryLock()) {
+            return;
+        }
+        contended.increment();
+        long start = System.nanoTime();
+        lock.lockInterruptibly();
+        long waited = System.nanoTime() - start;
+        waitNanos.add(waited);
+        maxWaitNanos.accumulate(waited);
+    }
+
+    private static void release(int[] indexes, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            stripes[indexes[i]].unlock();
+        }
+    }
+
+    private static int[] stripeIndexes(int... indexes) {
+        return Arrays.stream(indexes).sorted().distinct().toArray();
+    }
+
+    private static int stripeFor(KeyType type, Integer id) {
+        int hash = 31 * type.ordinal() + (id == null ? 0 : id);
+        hash ^= (hash >>> 16);
+        hash *= 0x45d9f3b;
+        hash ^= (hash >>> 16);
+        return Math.floorMod(hash, stripes.length);
+    }
+
+    private static ReentrantLock[] createStripes(int count) {
+        ReentrantLock[] locks = new ReentrantLock[Math.max(1, count)];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    /**
+     * @return the number of stripe locks acquired.
+     */
+    public static long getAcquisitions() {
+        return acquisitions.sum();
+    }
+
+    /**
+     * @return the number of acquisitions that had to wait because another thread held the stripe.
+     */
+    public static long getContendedAcquisitions() {
+        return contended.sum();
+    }
+
+    /**
+     * @return the average time a contended acquisition waited, in milliseconds.
+     */
+    public static double getAverageWaitMillis() {
+        long count = contended.sum();
+        return count == 0 ? 0 : waitNanos.sum() / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return the longest time an acquisition waited, in milliseconds.
+     */
+    public static double getMaxWaitMillis() {
+        return maxWaitNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return a one-line summary of the lock contention counters.
+     */
+    public static String describeContention() {
+        return String.format("stripes=%d, acquired=%d, contended=%d, avgWait=%.3fms, maxWait=%.3fms",
+                stripes.length, getAcquisitions(), getContendedAcquisitions(), getAverageWaitMillis(),
+                getMaxWaitMillis());
+    }
+
+    private enum KeyType {
+        USER, COPY
+    }
+}
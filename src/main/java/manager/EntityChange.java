@@ -0,0 +1,56 @@
+package manager;
+
+import java.util.Set;
+
+/**
+ * A committed change to one entity, as published on the {@link ChangeBus}.
+ *
+ * @param entityType the class of the changed entity.
+ * @param id the ID of the changed entity.
+ * @param kind whether the entity was created, updated or deleted.
+ * @param changedFields the names of the fields that changed; empty for created and deleted entities.
+ */
+public record EntityChange(Class<?> entityType, Integer id, Kind kind, Set<String> changedFields) {
+    /**
+     * The kind of a change.
+     */
+    public enum Kind {
+        CREATED, UPDATED, DELETED
+    }
+
+    /**
+     * @param entityType the class of the created entity.
+     * @param id the ID of the created entity.
+     * @return the change.
+     */
+    public static EntityChange created(Class<?> entityType, Integer id) {
+        return new EntityChange(entityType, id, Kind.CREATED, Set.of());
+    }
+
+    /**
+     * @param entityType the class of the updated entity.
+     * @param id the ID of the updated entity.
+     * @param changedFields the names of the fields that changed.
+     * @return the change.
+     */
+    public static EntityChange updated(Class<?> entityType, Integer id, String... changedFields) {
+        return new EntityChange(entityType, id, Kind.UPDATED, Set.of(changedFields));
+    }
+
+    /**
+     * @param entityType the class of the deleted entity.
+     * @param id the ID of the deleted entity.
+     * @return the change.
+     */
+    public static EntityChange deleted(Class<?> entityType, Integer id) {
+        return new EntityChange(entityType, id, Kind.DELETED, Set.of());
+    }
+
+    /**
+     * @param field the name of a field.
+     * @return whether the field changed.
+     */
+    public boolean changed(String field) {
+        return changedFields.contains(field);
+    }
+}
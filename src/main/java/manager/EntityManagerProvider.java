@@ -0,0 +1,76 @@
+package manager;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Hands out short-lived, thread-confined {@link EntityManager}s from the shared {@link EntityManagerFactory}.
+ * Each call to {@link #call(Work)} runs as one unit of work: it gets a fresh EntityManager that is bound to the
+ * calling thread for the duration of the work and closed afterwards. Nested calls on the same thread join the
+ * enclosing unit of work, so a service can call another service inside its own transaction.
+ * <p>
+ * Entities returned from a unit of work are detached; associations they need afterwards must be fetched
+ * by the queries that load them.
+ */
+public class EntityManagerProvider {
+    private final EntityManagerFactory entityManagerFactory;
+    private final ThreadLocal<EntityManager> current = new ThreadLocal<>();
+
+    /**
+     * A piece of work that runs against the EntityManager of a unit of work.
+     *
+     * @param <T> the type of the result.
+     * @param <E> the type of exception the work may throw.
+     */
+    @FunctionalInterface
+    public interface Work<T, E extends Exception> {
+        T apply(EntityManager entityManager) throws E;
+    }
+
+    /**
+     * Constructs a provider for the given factory.
+     *
+     * @param entityManagerFactory the factory the EntityManagers are created from.
+     */
+    public EntityManagerProvider(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Runs the work in a unit of work. If the calling thread is already inside one, its EntityManager is reused;
+     * otherwise a new EntityManager is opened for the work and closed once it completes.
+     *
+     * @param work the work to run.
+     * @param <T> the type of the result.
+     * @param <E> the type of exception the work may throw.
+     * @return the result of the work.
+     * @throws E if the work fails.
+     */
+    public <T, E extends Exception> T call(Work<T, E> work) throws E {
+        EntityManager bound = current.get();
+        if (bound != null) {
+            return work.apply(bound);
+        }
+
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        current.set(entityManager);
+        try {
+            return work.apply(entityManager);
+        } finally {
+            current.remove();
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            entityManager.close();
+        }
+    }
+
+    /**
+     * Gets the factory the EntityManagers are created from.
+     *
+     * @return the shared EntityManagerFactory.
+     */
+    public EntityManagerFactory getEntityManagerFactory() {
+        return entityManagerFactory;
+    }
+}
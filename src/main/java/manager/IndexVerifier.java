@@ -0,0 +1,132 @@
+package manager;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.metamodel.EntityType;
+import org.hibernate.Session;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Checks at startup that every index declared on the entities exists in the database, and creates the ones that
+ * are missing. A declared index counts as present when some index of the table starts with the same columns,
+ * which also accepts the indexes backing unique constraints and foreign keys.
+ */
+public class IndexVerifier {
+    private final EntityManager entityManager;
+
+    /**
+     * Constructor for initializing the IndexVerifier.
+     *
+     * @param entityManager The EntityManager for database operations.
+     */
+    public IndexVerifier(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Creates every declared index that the database does not have yet.
+     *
+     * @return the number of indexes created.
+     */
+    public int verifyIndexes() {
+        EntityTransaction transaction = entityManager.getTransaction();
+        List<String> created = new ArrayList<>();
+        try {
+            transaction.begin();
+            entityManager.unwrap(Session.class).doWork(connection -> {
+                for (EntityType<?> entityType : entityManager.getMetamodel().getEntities()) {
+                    Table table = entityType.getJavaType().getAnnotation(Table.class);
+                    if (table == null) {
+                        continue;
+                    }
+                    List<List<String>> existing = null;
+                    for (Index index : table.indexes()) {
+                        if (existing == null) {
+                            existing = readIndexes(connection, table.name());
+                        }
+                        List<String> columns = parseColumns(index.columnList());
+                        if (!isCovered(columns, existing)) {
+                            createIndex(connection, table.name(), index);
+                            existing.add(columns);
+                            created.add(index.name());
+                        }
+                    }
+                }
+            });
+            transaction.commit();
+            if (!created.isEmpty()) {
+                System.out.println("Created missing indexes: " + String.join(", ", created));
+            }
+        } catch (Exception e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            System.err.println("Error verifying indexes: " + e.getMessage());
+        }
+        return created.size();
+    }
+
+    private List<List<String>> readIndexes(Connection connection, String tableName) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String storedName = metaData.storesUpperCaseIdentifiers() ? tableName.toUpperCase(Locale.ROOT) : tableName;
+        Map<String, Map<Short, String>> columnsByIndex = new LinkedHashMap<>();
+        try (ResultSet rows = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), storedName,
+                false, true)) {
+            while (rows.next()) {
+                String indexName = rows.getString("INDEX_NAME");
+                String columnName = rows.getString("COLUMN_NAME");
+                if (indexName != null && columnName != null) {
+                    columnsByIndex.computeIfAbsent(indexName, name -> new TreeMap<>())
+                            .put(rows.getShort("ORDINAL_POSITION"), columnName.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        List<List<String>> indexes = new ArrayList<>();
+        for (Map<Short, String> columns : columnsByIndex.values()) {
+            indexes.add(new ArrayList<>(columns.values()));
+        }
+        return indexes;
+    }
+
+    private boolean isCovered(List<String> columns, List<List<String>> existing) {
+        for (List<String> indexColumns : existing) {
+            if (indexColumns.size() >= columns.size() && indexColumns.subList(0, columns.size()).equals(columns)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void createIndex(Connection connection, String tableName, Index index) throws SQLException {
+        String sql = "CREATE " + (index.unique() ? "UNIQUE " : "") + "INDEX " + index.name() +
+                " ON " + tableName + " (" + String.join(", ", parseColumns(index.columnList())) + ")";
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static List<String> parseColumns(String columnList) {
+        List<String> columns = new ArrayList<>();
+        for (String column : columnList.split(",")) {
+            // Drop an ASC/DESC qualifier; the verifier only compares column order
+            String name = column.trim().split("\\s+")[0];
+            if (!name.isEmpty()) {
+                columns.add(name.toLowerCase(Locale.ROOT));
+            }
+        }
+        return columns;
+    }
+}
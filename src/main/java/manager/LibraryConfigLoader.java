@@ -1,49 +1,125 @@
-package manager;
-
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.Properties;
-
-public class LibraryConfigLoader {
-    private static final Properties properties = new Properties();
-    private static boolean initialized = false;
-
-    static {
-        loadProperties();
-    }
-
-    private static void loadProperties() {
-        if (!initialized) {
-            try (InputStream input = LibraryConfigLoader.class.getClassLoader()
-                    .getResourceAsStream("library-config.properties")) {
-                if (input == null) {
-                    throw new RuntimeException("Unable to find library-config.properties");
-                }
-                properties.load(input);
-                initialized = true;
-            } catch (IOException e) {
-                throw new RuntimeException("Error loading library configuration", e);
-            }
-        }
-    }
-
-    public static int getMaxBorrowingsPerUser() {
-        return Integer.parseInt(properties.getProperty("library.borrowing.max-per-user"));
-    }
-
-    public static int getStandardLoanDays() {
-        return Integer.parseInt(properties.getProperty("library.borrowing.standard-loan-days"));
-    }
-
-    public static String getLibrarianRole() {
-        return properties.getProperty("library.roles.librarian");
-    }
-
-    public static String getSeniorLibrarianRole() {
-        return properties.getProperty("library.roles.senior-librarian");
-    }
-
-    public static String getUserRole() {
-        return properties.getProperty("library.roles.user");
-    }
-}
\ No newline at end of file
+package manager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+public class LibraryConfigLoader {
+    private static final Properties properties = new Properties();
+    private static boolean initialized = false;
+
+    static {
+        loadProperties();
+    }
+
+    private static void loadProperties() {
+        if (!initialized) {
+            try (InputStream input = LibraryConfigLoader.class.getClassLoader()
+                    .getResourceAsStream("library-config.properties")) {
+                if (input == null) {
+                    throw new RuntimeException("Unable to find library-config.properties");
+                }
+                properties.load(input);
+                initialized = true;
+            } catch (IOException e) {
+                throw new RuntimeException("Error loading library configuration", e);
+            }
+        }
+    }
+
+    public static int getMaxBorrowingsPerUser() {
+        return Integer.parseInt(properties.getProperty("library.borrowing.max-per-user"));
+    }
+
+    public static int getStandardLoanDays() {
+        return Integer.parseInt(properties.getProperty("library.borrowing.standard-loan-days"));
+    }
+
+    public static String getLibrarianRole() {
+        return properties.getProperty("library.roles.librarian");
+    }
+
+    public static String getSeniorLibrarianRole() {
+        return properties.getProperty("library.roles.senior-librarian");
+    }
+
+    public static String getUserRole() {
+        return properties.getProperty("library.roles.user");
+    }
+
+    public static int getPoolMinIdle() {
+        return Integer.parseInt(properties.getProperty("library.pool.min-idle", "2"));
+    }
+
+    public static int getPoolMaxSize() {
+        return Integer.parseInt(properties.getProperty("library.pool.max-size", "10"));
+    }
+
+    public static long getPoolConnectionTimeoutMillis() {
+        return Long.parseLong(properties.getProperty("library.pool.connection-timeout-ms", "5000"));
+    }
+
+    public static long getPoolLeakDetectionThresholdMillis() {
+        return Long.parseLong(properties.getProperty("library.pool.leak-detection-threshold-ms", "10000"));
+    }
+
+    public static int getStatementCacheSize() {
+        return Integer.parseInt(properties.getProperty("library.pool.statement-cache-size", "64"));
+    }
+
+    public static int getLockStripes() {
+        return Integer.parseInt(properties.getProperty("library.borrowing.lock-stripes", "64"));
+    }
+
+    public static boolean isOptimisticBorrowingEnabled() {
+        return "optimistic".equalsIgnoreCase(properties.getProperty("library.borrowing.locking", "pessimistic"));
+    }
+
+    public static int getOptimisticMaxAttempts() {
+        return Integer.parseInt(properties.getProperty("library.borrowing.optimistic.max-attempts", "5"));
+    }
+
+    public static long getOptimisticBackoffMillis() {
+        return Long.parseLong(properties.getProperty("library.borrowing.optimistic.backoff-ms", "20"));
+    }
+
+    public static double getFuzzySearchThreshold() {
+        return Double.parseDouble(properties.getProperty("library.search.fuzzy-threshold", "0.3"));
+    }
+
+    public static int getFuzzySearchMaxResults() {
+        return Integer.parseInt(properties.getProperty("library.search.fuzzy-max-results", "50"));
+    }
+
+    public static int getAutocompleteLimit() {
+        return Integer.parseInt(properties.getProperty("library.search.autocomplete-limit", "20"));
+    }
+
+    public static int getSearchDebounceMillis() {
+        return Integer.parseInt(properties.getProperty("library.search.debounce-ms", "300"));
+    }
+
+    public static int getSearchCacheSize() {
+        return Integer.parseInt(properties.getProperty("library.search.cache-size", "32"));
+    }
+
+    public static boolean isStartupWarmupEnabled() {
+        return Boolean.parseBoolean(properties.getProperty("library.startup.warmup", "true"));
+    }
+
+    public static boolean isLoanCounterRepairOnStartupEnabled() {
+        return Boolean.parseBoolean(properties.getProperty("library.borrowing.repair-counters-on-startup", "false"));
+    }
+
+    public static int getTablePageSize() {
+        return Integer.parseInt(properties.getProperty("library.ui.table-page-size", "100"));
+    }
+
+    public static int getTableCachedPages() {
+        return Integer.parseInt(properties.getProperty("library.ui.table-cached-pages", "10"));
+    }
+
+    public static long getRefreshOverlapMillis() {
+        return Long.parseLong(properties.getProperty("library.ui.refresh-overlap-ms", "5000"));
+    }
+}
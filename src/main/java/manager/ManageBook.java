@@ -1,124 +1,333 @@
-package manager;
-
-import Repository.BookRepo;
-import Repository.CopyRepo;
-import jakarta.persistence.EntityManager;
-import table.Book;
-
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
-
-public class ManageBook {
-    private final BookRepo bookRepo;
-    private final CopyRepo copyRepo;
-    private final EntityManager entityManager;
-
-
-    public ManageBook(EntityManager entityManager) {
-        this.bookRepo = new BookRepo(entityManager);
-        this.copyRepo = new CopyRepo(entityManager);
-        this.entityManager = entityManager;
-    }
-
-    /**
-     * Creates a new book in the system
-     * @param book The book entity to create
-     * @return The created book with generated ID
-     * @throws Exception if book with the same ISBN already exists
-     */
-    public Book createBook(Book book) throws Exception {
-        Optional<Book> existingBook = bookRepo.findByIsbn(book.getIsbn());
-        if (existingBook.isPresent()) {
-            throw new Exception("Book with ISBN already exists: " + book.getIsbn());
-        }
-
-        return bookRepo.save(book);
-    }
-
-    /**
-     * Retrieves a book by its ID
-     * @param id The ID of the book to retrieve
-     * @return Optional containing the book if found
-     */
-    public Optional<Book> getBookById(Integer id) {
-        return bookRepo.findById(id);
-    }
-
-
-    /**
-     * Searches for books by title (partial match)
-     * @param title The title to search for
-     * @return List of books matching the title
-     */
-    public List<Book> searchBooksByTitle(String title) {
-        return bookRepo.findByTitle(title);
-    }
-
-    /**
-     * Retrieves all books in the system
-     * @return List of all books
-     */
-    public List<Book> getAllBooks() {
-        return bookRepo.findAll();
-    }
-    
-
-    /**
-     * Updates an existing book
-     * @param book The book entity to update
-     * @return The updated book
-     * @throws Exception if book doesn't exist or if new ISBN conflicts with existing book
-     */
-    public Book updateBook(Book book) throws Exception {
-        if (!bookRepo.findById(book.getId()).isPresent()) {
-            throw new Exception("Book not found with id: " + book.getId());
-        }
-
-        // Check if new ISBN conflicts with another book
-        Optional<Book> existingBook = bookRepo.findByIsbn(book.getIsbn());
-        if (existingBook.isPresent() && !existingBook.get().getId().equals(book.getId())) {
-            throw new Exception("Another book with this ISBN already exists: " + book.getIsbn());
-        }
-
-        return bookRepo.update(book);
-    }
-
-    /**
-     * Deletes a book by its ID
-     * @param id The ID of the book to delete
-     * @throws Exception if book doesn't exist or has copies
-     */
-    public void deleteBook(Integer id) throws Exception {
-        Optional<Book> book = bookRepo.findById(id);
-        if (!book.isPresent()) {
-            throw new Exception("Book not found with id: " + id);
-        }
-
-        // Check if book has any copies before deletion
-        if (book.get().getCopies() != null && !book.get().getCopies().isEmpty()) {
-            throw new Exception("Cannot delete book that has copies");
-        }
-
-        bookRepo.deleteById(id);
-    }
-
-    /**
-     * Gets detailed availability information for a book
-     * @param book The book to check
-     * @return Map containing total copies, available copies, and borrowed copies
-     */
-    public Map<String, Long> getBookAvailabilityInfo(Book book) {
-        Map<String, Long> availabilityInfo = new HashMap<>();
-        availabilityInfo.put("totalCopies", copyRepo.countAllCopies(book));
-        availabilityInfo.put("availableCopies", copyRepo.countAvailableCopies(book));
-        availabilityInfo.put("borrowedCopies", copyRepo.countBorrowedCopies(book));
-        return availabilityInfo;
-    }
-
-    public EntityManager getEntityManager() {
-        return this.entityManager;
-    }
-
+package manager;
+
+import Repository.BookRepo;
+import Repository.BookSummary;
+import Repository.ChangeStamp;
+import Repository.CopyRepo;
+import table.Book;
+import table.CopyStatus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public class ManageBook {
+    private final EntityManagerProvider entityManagerProvider;
+    private final BookSearchIndex searchIndex = BookSearchIndex.getInstance();
+    private final TitleTrigramIndex trigramIndex = TitleTrigramIndex.getInstance();
+
+    /**
+     * The ways a book search can match the search text.
+     */
+    public enum SearchMode {
+        /** Every word of the search text starts a word of the title or author. */
+        WORDS,
+        /** The title is similar to the search text, tolerating typos. */
+        FUZZY_TITLE
+    }
+
+
+    public ManageBook(EntityManagerProvider entityManagerProvider) {
+        this.entityManagerProvider = entityManagerProvider;
+    }
+
+    /**
+     * Creates a new book in the system
+     * @param book The book entity to create
+     * @return The created book with generated ID
+     * @throws Exception if book with the same ISBN already exists
+     */
+    public Book createBook(Book book) throws Exception {
+        Book created = entityManagerProvider.call(em -> {
+            BookRepo bookRepo = new BookRepo(em);
+            Optional<Book> existingBook = bookRepo.findByIsbn(book.getIsbn());
+            if (existingBook.isPresent()) {
+                throw new Exception("Book with ISBN already exists: " + book.getIsbn());
+            }
+
+            return bookRepo.save(book);
+        });
+        indexBook(created);
+        return created;
+    }
+
+    /**
+     * Retrieves a book by its ID
+     * @param id The ID of the book to retrieve
+     * @return Optional containing the book if found
+     */
+    public Optional<Book> getBookById(Integer id) {
+        return entityManagerProvider.call(em -> new BookRepo(em).findById(id));
+    }
+
+
+    /**
+     * Searches for books by the words of their title or author, using the in-memory search index once it is built
+     * @param title The words to search for; each word may be the start of a longer word
+     * @return List of matching books, best match first
+     */
+    public List<Book> searchBooksByTitle(String title) {
+        if (useSearchIndex(title)) {
+            List<Integer> bookIds = searchIndex.search(title);
+            return bookIds.isEmpty() ? Collections.emptyList() :
+                    entityManagerProvider.call(em -> new BookRepo(em).findByIds(bookIds));
+        }
+        return entityManagerProvider.call(em -> new BookRepo(em).findByTitle(title));
+    }
+
+    /**
+     * Retrieves all books in the system
+     * @return List of all books
+     */
+    public List<Book> getAllBooks() {
+        return entityManagerProvider.call(em -> new BookRepo(em).findAll());
+    }
+
+    /**
+     * Retrieves a summary row for every book, including publisher name and copy counts
+     * @return List of book summaries ordered by title
+     */
+    public List<BookSummary> getBookSummaries() {
+        return entityManagerProvider.call(em -> new BookRepo(em).findSummaries());
+    }
+
+    /**
+     * Retrieves the summary row of one book, for refreshing it in a listing
+     * @param id The ID of the book
+     * @return Optional containing the summary if the book exists
+     */
+    public Optional<BookSummary> getBookSummary(Integer id) {
+        return entityManagerProvider.call(em -> new BookRepo(em).findSummariesByIds(List.of(id)))
+                .stream().findFirst();
+    }
+
+    /**
+     * Searches for books by the words of their title or author and returns their summary rows
+     * @param title The words to search for; each word may be the start of a longer word
+     * @return List of summaries of the matching books, best match first
+     */
+    public List<BookSummary> searchBookSummariesByTitle(String title) {
+        if (useSearchIndex(title)) {
+            List<Integer> bookIds = searchIndex.search(title);
+            return bookIds.isEmpty() ? Collections.emptyList() :
+                    entityManagerProvider.call(em -> new BookRepo(em).findSummariesByIds(bookIds));
+        }
+        return entityManagerProvider.call(em -> new BookRepo(em).findSummariesByTitle(title));
+    }
+
+    /**
+     * Searches for books in the given mode and returns their summary rows
+     * @param query The search text
+     * @param mode How the search text is matched
+     * @return List of summaries of the matching books, best match first
+     */
+    public List<BookSummary> searchBookSummaries(String query, SearchMode mode) {
+        if (mode == SearchMode.FUZZY_TITLE && trigramIndex.isBuilt()) {
+            List<Integer> bookIds = trigramIndex.search(query, LibraryConfigLoader.getFuzzySearchThreshold(),
+                    LibraryConfigLoader.getFuzzySearchMaxResults());
+            return bookIds.isEmpty() ? Collections.emptyList() :
+                    entityManagerProvider.call(em -> new BookRepo(em).findSummariesByIds(bookIds));
+        }
+        return searchBookSummariesByTitle(query);
+    }
+
+    /**
+     * Loads every book into the shared search indexes, replacing their previous contents
+     */
+    public void rebuildSearchIndex() {
+        searchIndex.clear();
+        trigramIndex.clear();
+        Map<Integer, String> titles = new HashMap<>();
+        Map<Integer, String> authors = new HashMap<>();
+        entityManagerProvider.call(em -> {
+            try (Stream<Book> books = new BookRepo(em).streamAll()) {
+                books.forEach(book -> {
+                    searchIndex.index(book);
+                    trigramIndex.index(book);
+                    titles.put(book.getId(), book.getTitle());
+                    authors.put(book.getId(), book.getAuthor());
+                });
+            }
+            return null;
+        });
+        PrefixIndex.bookTitles().replaceAll(titles);
+        PrefixIndex.bookAuthors().replaceAll(authors);
+        searchIndex.markBuilt();
+        trigramIndex.markBuilt();
+    }
+
+    /**
+     * Completes a typed prefix to books whose title, or failing that author, starts with it
+     * @param prefix The typed beginning of a title or author
+     * @param limit Maximum number of books to return
+     * @return List of matching books, title matches first
+     */
+    public List<Book> completeBooks(String prefix, int limit) {
+        Set<Integer> bookIds = new LinkedHashSet<>(PrefixIndex.bookTitles().complete(prefix, limit));
+        for (Integer bookId : PrefixIndex.bookAuthors().complete(prefix, limit)) {
+            if (bookIds.size() >= limit) {
+                break;
+            }
+            bookIds.add(bookId);
+        }
+        return bookIds.isEmpty() ? Collections.emptyList() :
+                entityManagerProvider.call(em -> new BookRepo(em).findByIds(new ArrayList<>(bookIds)));
+    }
+
+    private void indexBook(Book book) {
+        searchIndex.index(book);
+        trigramIndex.index(book);
+        PrefixIndex.bookTitles().put(book.getId(), book.getTitle());
+        PrefixIndex.bookAuthors().put(book.getId(), book.getAuthor());
+    }
+
+    private boolean useSearchIndex(String query) {
+        return searchIndex.isBuilt() && BookSearchIndex.isSearchable(query);
+    }
+
+    /**
+     * Retrieves one page of books ordered by title, continuing after the last book of the previous page
+     * @param afterTitle Title of the last book on the previous page, or null for the first page
+     * @param afterId ID of the last book on the previous page, or null for the first page
+     * @param limit Maximum number of books on the page
+     * @return List of books on the page
+     */
+    public List<Book> getBooksPage(String afterTitle, Integer afterId, int limit) {
+        return entityManagerProvider.call(em -> new BookRepo(em).findPage(afterTitle, afterId, limit));
+    }
+
+    /**
+     * Retrieves one page of books matching the title, ordered by title
+     * @param title The title to search for
+     * @param afterTitle Title of the last book on the previous page, or null for the first page
+     * @param afterId ID of the last book on the previous page, or null for the first page
+     * @param limit Maximum number of books on the page
+     * @return List of matching books on the page
+     */
+    public List<Book> searchBooksByTitlePage(String title, String afterTitle, Integer afterId, int limit) {
+        return entityManagerProvider.call(em -> new BookRepo(em).findByTitlePage(title, afterTitle, afterId, limit));
+    }
+
+    /**
+     * Retrieves one page of book summaries ordered by title, continuing after the last book of the previous page
+     * @param afterTitle Title of the last book on the previous page, or null for the first page
+     * @param afterId ID of the last book on the previous page, or null for the first page
+     * @param limit Maximum number of summaries on the page
+     * @return List of book summaries on the page
+     */
+    public List<BookSummary> getBookSummaryPage(String afterTitle, Integer afterId, int limit) {
+        return entityManagerProvider.call(em -> new BookRepo(em).findSummaryPage(afterTitle, afterId, limit));
+    }
+
+    /**
+     * Retrieves the page of book summaries ordered by title that starts at the given position
+     * @param offset Position of the first summary on the page
+     * @param limit Maximum number of summaries on the page
+     * @return List of book summaries on the page
+     */
+    public List<BookSummary> getBookSummaryPageAt(int offset, int limit) {
+        return entityManagerProvider.call(em -> new BookRepo(em).findSummaryPageAt(offset, limit));
+    }
+
+    /**
+     * Counts all books
+     * @return The number of books
+     */
+    public long countBooks() {
+        return entityManagerProvider.<Long, RuntimeException>call(em -> new BookRepo(em).count());
+    }
+
+    /**
+     * Gets the change stamps of the tables the book summaries are computed from
+     * @return The change stamps of the books and copies tables; equal stamps mean the summaries are unchanged
+     */
+    public List<ChangeStamp> getSummaryChangeStamps() {
+        return entityManagerProvider.call(em -> List.of(new BookRepo(em).getChangeStamp(),
+                new CopyRepo(em).getChangeStamp()));
+    }
+    
+
+    /**
+     * Updates an existing book
+     * @param book The book entity to update
+     * @return The updated book
+     * @throws Exception if book doesn't exist or if new ISBN conflicts with existing book
+     */
+    public Book updateBook(Book book) throws Exception {
+        Book updated = entityManagerProvider.call(em -> {
+            BookRepo bookRepo = new BookRepo(em);
+            if (!bookRepo.findById(book.getId()).isPresent()) {
+                throw new Exception("Book not found with id: " + book.getId());
+            }
+
+            // Check if new ISBN conflicts with another book
+            Optional<Book> existingBook = bookRepo.findByIsbn(book.getIsbn());
+            if (existingBook.isPresent() && !existingBook.get().getId().equals(book.getId())) {
+                throw new Exception("Another book with this ISBN already exists: " + book.getIsbn());
+            }
+
+            return bookRepo.update(book);
+        });
+        indexBook(updated);
+        return updated;
+    }
+
+    /**
+     * Deletes a book by its ID
+     * @param id The ID of the book to delete
+     * @throws Exception if book doesn't exist or has copies
+     */
+    public void deleteBook(Integer id) throws Exception {
+        entityManagerProvider.call(em -> {
+            BookRepo bookRepo = new BookRepo(em);
+            Optional<Book> book = bookRepo.findById(id);
+            if (!book.isPresent()) {
+                throw new Exception("Book not found with id: " + id);
+            }
+
+            // Check if book has any copies before deletion
+            if (book.get().getCopies() != null && !book.get().getCopies().isEmpty()) {
+                throw new Exception("Cannot delete book that has copies");
+            }
+
+            return bookRepo.deleteById(id);
+        });
+        searchIndex.remove(id);
+        trigramIndex.remove(id);
+        PrefixIndex.bookTitles().remove(id);
+        PrefixIndex.bookAuthors().remove(id);
+    }
+
+    /**
+     * Gets detailed availability information for a book
+     * @param book The book to check
+     * @return Map containing total copies, available copies, and borrowed copies
+     */
+    public Map<String, Long> getBookAvailabilityInfo(Book book) {
+        EnumMap<CopyStatus, Long> counts = entityManagerProvider.call(em ->
+                new CopyRepo(em).countCopiesByStatus(book));
+        Map<String, Long> availabilityInfo = new HashMap<>();
+        availabilityInfo.put("totalCopies", counts.values().stream().mapToLong(Long::longValue).sum());
+        availabilityInfo.put("availableCopies", counts.get(CopyStatus.AVAILABLE));
+        availabilityInfo.put("borrowedCopies", counts.get(CopyStatus.BORROWED));
+        return availabilityInfo;
+    }
+
+    /**
+     * Gets the copy counts per status for several books with a single grouped query
+     * @param books The books to check
+     * @return Map from book ID to the number of copies in each status
+     */
+    public Map<Integer, EnumMap<CopyStatus, Long>> getAvailabilityCounts(Collection<Book> books) {
+        return entityManagerProvider.call(em -> new CopyRepo(em).countCopiesByStatus(books));
+    }
+
 }
\ No newline at end of file
@@ -1,162 +1,272 @@
-package manager;
-
-import Repository.BorrowingRepo;
-import Repository.CopyRepo;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.LockModeType;
-import table.Borrowing;
-import table.Copy;
-import table.User;
-
-import java.util.Calendar;
-import java.util.Date;
-import java.util.List;
-import java.util.Optional;
-
-public class ManageBorrowing {
-    private final BorrowingRepo borrowingRepo;
-    private final CopyRepo copyRepo;
-    private final EntityManager entityManager;
-
-    public ManageBorrowing(EntityManager entityManager) {
-        this.borrowingRepo = new BorrowingRepo(entityManager);
-        this.entityManager = entityManager;
-        this.copyRepo = new CopyRepo(entityManager);
-    }
-
-    public Borrowing newBorrowing(User user, Copy copy, Date borrowDate) throws Exception {
-        return ConCheck.lockBorrowing(() -> {
-            entityManager.getTransaction().begin();
-            try {
-                User managedUser = entityManager.contains(user) ?
-                        user : entityManager.find(User.class, user.getId());
-                Copy managedCopy = entityManager.find(Copy.class, copy.getId(),
-                        LockModeType.PESSIMISTIC_WRITE);  // Add pessimistic lock
-
-                if (managedCopy == null || managedUser == null) {
-                    throw new Exception("Copy or User not found");
-                }
-                entityManager.refresh(managedCopy);
-
-                if ("Borrowed".equals(managedCopy.getStatus())) {
-                    throw new Exception("Copy is already borrowed");
-                }
-
-                long activeBorrowings = borrowingRepo.findUserCurrentBorrowings(managedUser).size();
-                if (activeBorrowings >= LibraryConfigLoader.getMaxBorrowingsPerUser()) {
-                    throw new Exception("User has reached maximum allowed borrowings: " +
-                            LibraryConfigLoader.getMaxBorrowingsPerUser());
-                }
-
-                managedCopy.setStatus("Borrowed");
-
-                Borrowing borrowing = new Borrowing(managedUser, managedCopy, borrowDate);
-                borrowingRepo.save(borrowing);
-
-                managedCopy.addBorrowing(borrowing);
-                copyRepo.update(managedCopy);
-
-                entityManager.getTransaction().commit();
-                return borrowing;
-
-            } catch (Exception e) {
-                if (entityManager.getTransaction().isActive()) {
-                    entityManager.getTransaction().rollback();
-                }
-                throw new Exception("Error creating borrowing: " + e.getMessage(), e);
-            }
-        });
-    }
-
-    /**
-     * Returns a borrowed book and calculates any late fees
-     */
-    public Borrowing returnBook(Integer borrowingId, Date returnDate) throws Exception {
-        entityManager.getTransaction().begin();
-        try {
-            Optional<Borrowing> borrowingOpt = borrowingRepo.findById(borrowingId);
-            if (!borrowingOpt.isPresent()) {
-                throw new Exception("Borrowing record not found with id: " + borrowingId);
-            }
-
-            Borrowing borrowing = borrowingOpt.get();
-            entityManager.lock(borrowing, LockModeType.PESSIMISTIC_WRITE);
-
-            if (borrowing.getReturnDate() != null) {
-                throw new Exception("Book has already been returned");
-            }
-            borrowing.setReturnDate(returnDate);
-
-            Copy copy = borrowing.getCopy();
-            copy.setStatus("Available");
-            copyRepo.update(copy);
-
-            borrowingRepo.update(borrowing);
-
-            entityManager.getTransaction().commit();
-            return borrowing;
-
-        } catch (Exception e) {
-            if (entityManager.getTransaction().isActive()) {
-                entityManager.getTransaction().rollback();
-            }
-            throw new Exception("Error returning book: " + e.getMessage(), e);
-        }
-    }
-
-    /**
-     * Renews a borrowing if allowed
-     */
-    public Borrowing renewBorrowing(Integer borrowingId) throws Exception {
-        entityManager.getTransaction().begin();
-        try {
-            Optional<Borrowing> borrowingOpt = borrowingRepo.findById(borrowingId);
-            if (!borrowingOpt.isPresent()) {
-                throw new Exception("Borrowing record not found with id: " + borrowingId);
-            }
-
-            Borrowing borrowing = borrowingOpt.get();
-
-            entityManager.refresh(borrowing);
-
-            Calendar calendar = Calendar.getInstance();
-            calendar.setTime(borrowing.getBorrowDate());
-            calendar.add(Calendar.DAY_OF_MONTH, LibraryConfigLoader.getStandardLoanDays());
-
-            Borrowing updatedBorrowing = borrowingRepo.update(borrowing);
-            entityManager.getTransaction().commit();
-            return updatedBorrowing;
-
-        } catch (Exception e) {
-            if (entityManager.getTransaction().isActive()) {
-                entityManager.getTransaction().rollback();
-            }
-            throw new Exception("Error renewing borrowing: " + e.getMessage(), e);
-        }
-    }
-
-    /**
-     * Gets all current (unreturned) borrowings
-     */
-    public List<Borrowing> getCurrentBorrowings() {
-        return borrowingRepo.findCurrentBorrowings();
-    }
-
-
-    /**
-     * Gets a specific borrowing by ID
-     */
-    public Optional<Borrowing> getBorrowingById(Integer id) {
-        return borrowingRepo.findById(id);
-    }
-
-    /**
-     * Gets complete borrowing history for a user, ordered by borrow date
-     * @param user The user whose history to retrieve
-     * @return List of all borrowings for the user
-     */
-    public List<Borrowing> getUserBorrowingHistory(User user) {
-        return borrowingRepo.findUserBorrowingHistory(user);
-    }
-
+package manager;
+
+import Repository.BookRepo;
+import Repository.BorrowingRepo;
+import Repository.ChangeStamp;
+import Repository.CopyRepo;
+import Repository.IdSet;
+import Repository.UserRepo;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.OptimisticLockException;
+import org.hibernate.StaleStateException;
+import table.Book;
+import table.Borrowing;
+import table.Copy;
+import table.User;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class ManageBorrowing {
+    private final EntityManagerProvider entityManagerProvider;
+    private final boolean optimistic = LibraryConfigLoader.isOptimisticBorrowingEnabled();
+
+    public ManageBorrowing(EntityManagerProvider entityManagerProvider) {
+        this.entityManagerProvider = entityManagerProvider;
+    }
+
+    public Borrowing newBorrowing(User user, Copy copy, Date borrowDate) throws Exception {
+        return withRetry(() -> entityManagerProvider.call(entityManager -> {
+            BorrowingRepo borrowingRepo = new BorrowingRepo(entityManager);
+            CopyRepo copyRepo = new CopyRepo(entityManager);
+            return ConCheck.lockBorrowing(user.getId(), copy.getId(), () -> {
+                entityManager.getTransaction().begin();
+                try {
+                    User managedUser = entityManager.contains(user) ?
+                            user : entityManager.find(User.class, user.getId());
+                    Copy managedCopy = entityManager.find(Copy.class, copy.getId(), rowLockMode());
+
+                    if (managedCopy == null || managedUser == null) {
+                        throw new Exception("Copy or User not found");
+                    }
+                    entityManager.refresh(managedCopy);
+
+                    if ("Borrowed".equals(managedCopy.getStatus())) {
+                        throw new Exception("Copy is already borrowed");
+                    }
+
+                    // The loan counter is the single source of truth for the limit. It only moves while the user is
+                    // under the limit, and the update holds the user row lock until commit, which serializes
+                    // borrowings of the same user across processes as well
+                    if (!new UserRepo(entityManager).recordBorrow(managedUser.getId(), borrowDate,
+                            LibraryConfigLoader.getMaxBorrowingsPerUser())) {
+                        throw new Exception("User has reached maximum allowed borrowings: " +
+                                LibraryConfigLoader.getMaxBorrowingsPerUser());
+                    }
+
+                    managedCopy.setStatus("Borrowed");
+
+                    Borrowing borrowing = new Borrowing(managedUser, managedCopy, borrowDate);
+                    borrowingRepo.save(borrowing);
+
+                    managedCopy.addBorrowing(borrowing);
+                    copyRepo.update(managedCopy);
+
+                    ChangeBus.getInstance().publishAfterCommit(entityManager,
+                            EntityChange.created(Borrowing.class, borrowing.getId()),
+                            EntityChange.updated(Copy.class, managedCopy.getId(), "status"),
+                            EntityChange.updated(User.class, managedUser.getId(),
+                                    "activeLoans", "lifetimeLoans", "lastBorrowDate"),
+                            EntityChange.updated(Book.class, managedCopy.getBook().getId(), "copies"));
+                    entityManager.getTransaction().commit();
+                    return borrowing;
+
+                } catch (Exception e) {
+                    if (entityManager.getTransaction().isActive()) {
+                        entityManager.getTransaction().rollback();
+                    }
+                    throw new Exception("Error creating borrowing: " + e.getMessage(), e);
+                }
+            });
+        }));
+    }
+
+    /**
+     * Returns a borrowed book and calculates any late fees
+     */
+    public Borrowing returnBook(Integer borrowingId, Date returnDate) throws Exception {
+        return withRetry(() -> entityManagerProvider.call(entityManager -> {
+            BorrowingRepo borrowingRepo = new BorrowingRepo(entityManager);
+            CopyRepo copyRepo = new CopyRepo(entityManager);
+            Borrowing borrowing = findForUpdate(borrowingRepo, borrowingId, "Error returning book: ");
+            return ConCheck.lockBorrowing(borrowing.getUser().getId(), borrowing.getCopy().getId(), () -> {
+                entityManager.getTransaction().begin();
+                try {
+                    entityManager.refresh(borrowing, rowLockMode());
+
+                    if (borrowing.getReturnDate() != null) {
+                        throw new Exception("Book has already been returned");
+                    }
+                    borrowing.setReturnDate(returnDate);
+
+                    Copy copy = borrowing.getCopy();
+                    copy.setStatus("Available");
+                    copyRepo.update(copy);
+
+                    borrowingRepo.update(borrowing);
+                    new UserRepo(entityManager).recordReturn(borrowing.getUser().getId());
+
+                    ChangeBus.getInstance().publishAfterCommit(entityManager,
+                            EntityChange.updated(Borrowing.class, borrowing.getId(), "returnDate"),
+                            EntityChange.updated(Copy.class, copy.getId(), "status"),
+                            EntityChange.updated(User.class, borrowing.getUser().getId(), "activeLoans"),
+                            EntityChange.updated(Book.class, copy.getBook().getId(), "copies"));
+                    entityManager.getTransaction().commit();
+                    return borrowing;
+
+                } catch (Exception e) {
+                    if (entityManager.getTransaction().isActive()) {
+                        entityManager.getTransaction().rollback();
+                    }
+                    throw new Exception("Error returning book: " + e.getMessage(), e);
+                }
+            });
+        }));
+    }
+
+    /**
+     * Renews a borrowing if allowed
+     */
+    public Borrowing renewBorrowing(Integer borrowingId) throws Exception {
+        return withRetry(() -> entityManagerProvider.call(entityManager -> {
+            BorrowingRepo borrowingRepo = new BorrowingRepo(entityManager);
+            Borrowing borrowing = findForUpdate(borrowingRepo, borrowingId, "Error renewing borrowing: ");
+            return ConCheck.lockBorrowing(borrowing.getUser().getId(), borrowing.getCopy().getId(), () -> {
+                entityManager.getTransaction().begin();
+                try {
+                    entityManager.refresh(borrowing);
+
+                    Calendar calendar = Calendar.getInstance();
+                    calendar.setTime(borrowing.getBorrowDate());
+                    calendar.add(Calendar.DAY_OF_MONTH, LibraryConfigLoader.getStandardLoanDays());
+
+                    Borrowing updatedBorrowing = borrowingRepo.update(borrowing);
+                    entityManager.getTransaction().commit();
+                    return updatedBorrowing;
+
+                } catch (Exception e) {
+                    if (entityManager.getTransaction().isActive()) {
+                        entityManager.getTransaction().rollback();
+                    }
+                    throw new Exception("Error renewing borrowing: " + e.getMessage(), e);
+                }
+            });
+        }));
+    }
+
+    /**
+     * Loads a borrowing so its user and copy ids are known before taking the borrowing locks
+     */
+    private Borrowing findForUpdate(BorrowingRepo borrowingRepo, Integer borrowingId, String errorPrefix)
+            throws Exception {
+        Optional<Borrowing> borrowingOpt = borrowingRepo.findById(borrowingId);
+        if (!borrowingOpt.isPresent()) {
+            throw new Exception(errorPrefix + "Borrowing record not found with id: " + borrowingId);
+        }
+        return borrowingOpt.get();
+    }
+
+    /**
+     * Gets the lock taken on copy and borrowing rows. In optimistic mode no row lock is taken and
+     * concurrent changes are detected through the version columns when the transaction commits.
+     */
+    private LockModeType rowLockMode() {
+        return optimistic ? LockModeType.NONE : LockModeType.PESSIMISTIC_WRITE;
+    }
+
+    /**
+     * Runs a circulation operation, retrying it with exponential backoff when another desk changed the same
+     * copy or borrowing first. In pessimistic mode the operation runs exactly once.
+     */
+    private <T> T withRetry(Callable<T> operation) throws Exception {
+        if (!optimistic) {
+            return operation.call();
+        }
+        int maxAttempts = Math.max(1, LibraryConfigLoader.getOptimisticMaxAttempts());
+        long backoffMillis = LibraryConfigLoader.getOptimisticBackoffMillis();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return operation.call();
+            } catch (Exception e) {
+                if (attempt >= maxAttempts || !isOptimisticLockFailure(e)) {
+                    throw e;
+                }
+                long delay = (backoffMillis << (attempt - 1)) + ThreadLocalRandom.current().nextLong(backoffMillis + 1);
+                Thread.sleep(delay);
+            }
+        }
+    }
+
+    private static boolean isOptimisticLockFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockException || cause instanceof StaleStateException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets all current (unreturned) borrowings
+     */
+    public List<Borrowing> getCurrentBorrowings() {
+        return entityManagerProvider.call(em -> new BorrowingRepo(em).findCurrentBorrowings());
+    }
+
+    /**
+     * Gets the current borrowings modified after the given time, including those whose user or book was modified
+     * @param since The time of the previous refresh
+     * @return List of the modified current borrowings
+     */
+    public List<Borrowing> getCurrentBorrowingsModifiedSince(Date since) {
+        return entityManagerProvider.call(em -> new BorrowingRepo(em).findCurrentModifiedSince(since));
+    }
+
+    /**
+     * Gets the IDs of the current borrowings, for finding the ones returned or deleted since a listing was loaded
+     * @return The set of current borrowing IDs
+     */
+    public IdSet getCurrentBorrowingIds() {
+        return entityManagerProvider.call(em -> new BorrowingRepo(em).findCurrentIds());
+    }
+
+    /**
+     * Gets the change stamps of the tables a borrowing listing shows
+     * @return The change stamps of the borrowings, users and books tables
+     */
+    public List<ChangeStamp> getBorrowingChangeStamps() {
+        return entityManagerProvider.call(em -> List.of(new BorrowingRepo(em).getChangeStamp(),
+                new UserRepo(em).getChangeStamp(), new BookRepo(em).getChangeStamp()));
+    }
+
+
+    /**
+     * Gets a borrowing with its user, copy and book, for showing it in a table
+     * @param id The ID of the borrowing
+     * @return Optional containing the borrowing if found
+     */
+    public Optional<Borrowing> getBorrowingDetails(Integer id) {
+        return entityManagerProvider.call(em -> new BorrowingRepo(em).findDetailedById(id));
+    }
+
+    /**
+     * Gets a specific borrowing by ID
+     */
+    public Optional<Borrowing> getBorrowingById(Integer id) {
+        return entityManagerProvider.call(em -> new BorrowingRepo(em).findById(id));
+    }
+
+    /**
+     * Gets complete borrowing history for a user, ordered by borrow date
+     * @param user The user whose history to retrieve
+     * @return List of all borrowings for the user
+     */
+    public List<Borrowing> getUserBorrowingHistory(User user) {
+        return entityManagerProvider.call(em -> new BorrowingRepo(em).findUserBorrowingHistory(user));
+    }
+
 }
\ No newline at end of file
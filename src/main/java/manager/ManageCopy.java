@@ -1,130 +1,171 @@
-package manager;
-
-import Repository.CopyRepo;
-import jakarta.persistence.EntityManager;
-import table.Book;
-import table.Copy;
-
-import java.util.List;
-import java.util.Optional;
-
-public class ManageCopy {
-    private final CopyRepo copyRepo;
-
-    public ManageCopy(EntityManager entityManager) {
-        this.copyRepo = new CopyRepo(entityManager);
-    }
-
-    /**
-     * Creates a new copy of a book
-     * @param book The book to create a copy for
-     * @param copyNumber The number to assign to this copy
-     * @return The created copy
-     */
-    public Copy createCopy(Book book, Integer copyNumber) {
-        Copy copy = new Copy(book, copyNumber);
-        return copyRepo.save(copy);
-    }
-
-    /**
-     * Gets all copies of a specific book
-     * @param book The book whose copies to retrieve
-     * @return List of copies
-     */
-    public List<Copy> getCopiesByBook(Book book) {
-        return copyRepo.findByBook(book);
-    }
-
-    /**
-     * Gets available copies of a specific book
-     * @param book The book whose available copies to retrieve
-     * @return List of available copies
-     */
-    public List<Copy> getAvailableCopies(Book book) {
-        return copyRepo.findAvailableCopies(book);
-    }
-
-    /**
-     * Gets a copy by its ID
-     * @param id The ID of the copy
-     * @return Optional containing the copy if found
-     */
-    public Optional<Copy> getCopyById(Integer id) {
-        return copyRepo.findById(id);
-    }
-
-    /**
-     * Counts available copies of a book
-     * @param book The book to count copies for
-     * @return Number of available copies
-     */
-    public Long countAvailableCopies(Book book) {
-        return copyRepo.countAvailableCopies(book);
-    }
-
-
-    /**
-     * Deletes a copy
-     * @param id The ID of the copy to delete
-     * @throws Exception if the copy is currently borrowed
-     */
-    public void deleteCopy(Integer id) throws Exception {
-        Optional<Copy> copy = copyRepo.findById(id);
-        if (!copy.isPresent()) {
-            throw new Exception("Copy not found with id: " + id);
-        }
-
-        if ("Borrowed".equals(copy.get().getStatus())) {
-            throw new Exception("Cannot delete a borrowed copy");
-        }
-
-        copyRepo.deleteById(id);
-    }
-
-    /**
-     * Updates the status of a copy
-     * @param copy The copy to update
-     * @param newStatus The new status to set
-     * @return The updated copy
-     * @throws Exception if the status transition is invalid
-     */
-    public Copy updateCopyStatus(Copy copy, String newStatus) throws Exception {
-        if (!isValidStatusTransition(copy.getStatus(), newStatus)) {
-            throw new Exception("Invalid status transition from " + copy.getStatus() + " to " + newStatus);
-        }
-
-        copy.setStatus(newStatus);
-        return copyRepo.update(copy);
-    }
-
-    private boolean isValidStatusTransition(String currentStatus, String newStatus) {
-        // Define valid status transitions
-        switch (currentStatus) {
-            case "Available":
-                return newStatus.equals("Borrowed") || newStatus.equals("Withdrawn");
-            case "Borrowed":
-                return newStatus.equals("Available");
-            case "Withdrawn":
-                return newStatus.equals("Available");
-            default:
-                return false;
-        }
-    }
-    /**
-     * Counts total number of copies for a book
-     * @param book The book to count copies for
-     * @return Total number of copies
-     */
-    public Long countAllCopies(Book book) {
-        return copyRepo.countAllCopies(book);
-    }
-
-    /**
-     * Counts borrowed copies of a book
-     * @param book The book to count borrowed copies for
-     * @return Number of borrowed copies
-     */
-    public Long countBorrowedCopies(Book book) {
-        return copyRepo.countBorrowedCopies(book);
-    }
-}
+package manager;
+
+import Repository.BorrowingRepo;
+import Repository.CopyRepo;
+import Repository.UserRepo;
+import table.Book;
+import table.Copy;
+import table.CopyStatus;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Optional;
+
+public class ManageCopy {
+    private final EntityManagerProvider entityManagerProvider;
+
+    public ManageCopy(EntityManagerProvider entityManagerProvider) {
+        this.entityManagerProvider = entityManagerProvider;
+    }
+
+    /**
+     * Creates a new copy of a book
+     * @param book The book to create a copy for
+     * @param copyNumber The number to assign to this copy
+     * @return The created copy
+     */
+    public Copy createCopy(Book book, Integer copyNumber) {
+        Copy copy = new Copy(book, copyNumber);
+        return entityManagerProvider.call(em -> {
+            Copy saved = new CopyRepo(em).save(copy);
+            ChangeBus.getInstance().publishAfterCommit(em, EntityChange.created(Copy.class, saved.getId()),
+                    EntityChange.updated(Book.class, book.getId(), "copies"));
+            return saved;
+        });
+    }
+
+    /**
+     * Gets all copies of a specific book
+     * @param book The book whose copies to retrieve
+     * @return List of copies
+     */
+    public List<Copy> getCopiesByBook(Book book) {
+        return entityManagerProvider.call(em -> new CopyRepo(em).findByBook(book));
+    }
+
+    /**
+     * Gets available copies of a specific book
+     * @param book The book whose available copies to retrieve
+     * @return List of available copies
+     */
+    public List<Copy> getAvailableCopies(Book book) {
+        return entityManagerProvider.call(em -> new CopyRepo(em).findAvailableCopies(book));
+    }
+
+    /**
+     * Gets a copy by its ID
+     * @param id The ID of the copy
+     * @return Optional containing the copy if found
+     */
+    public Optional<Copy> getCopyById(Integer id) {
+        return entityManagerProvider.call(em -> new CopyRepo(em).findById(id));
+    }
+
+    /**
+     * Counts available copies of a book
+     * @param book The book to count copies for
+     * @return Number of available copies
+     */
+    public Long countAvailableCopies(Book book) {
+        return entityManagerProvider.call(em -> new CopyRepo(em).countAvailableCopies(book));
+    }
+
+
+    /**
+     * Deletes a copy together with its borrowing history, taking the deleted borrowings out of the users' loan counters
+     * @param id The ID of the copy to delete
+     * @throws Exception if the copy is out on a borrowing that has not been returned
+     */
+    public void deleteCopy(Integer id) throws Exception {
+        entityManagerProvider.call(em -> {
+            CopyRepo copyRepo = new CopyRepo(em);
+            Optional<Copy> copy = copyRepo.findById(id);
+            if (!copy.isPresent()) {
+                throw new Exception("Copy not found with id: " + id);
+            }
+
+            // The status can say Available while a borrowing is still open, so the borrowings are checked
+            if (new BorrowingRepo(em).existsCurrentByCopy(id)) {
+                throw new Exception("Cannot delete a borrowed copy");
+            }
+
+            em.getTransaction().begin();
+            try {
+                new UserRepo(em).forgetBorrowingsOfCopy(id);
+                boolean deleted = copyRepo.deleteById(id);
+                if (deleted) {
+                    ChangeBus.getInstance().publishAfterCommit(em, EntityChange.deleted(Copy.class, id),
+                            EntityChange.updated(Book.class, copy.get().getBook().getId(), "copies"));
+                }
+                em.getTransaction().commit();
+                return deleted;
+            } catch (RuntimeException e) {
+                if (em.getTransaction().isActive()) {
+                    em.getTransaction().rollback();
+                }
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Updates the status of a copy
+     * @param copy The copy to update
+     * @param newStatus The new status to set
+     * @return The updated copy
+     * @throws Exception if the status transition is invalid
+     */
+    public Copy updateCopyStatus(Copy copy, String newStatus) throws Exception {
+        if (!isValidStatusTransition(copy.getStatus(), newStatus)) {
+            throw new Exception("Invalid status transition from " + copy.getStatus() + " to " + newStatus);
+        }
+
+        copy.setStatus(newStatus);
+        return entityManagerProvider.call(em -> {
+            Copy updated = new CopyRepo(em).update(copy);
+            ChangeBus.getInstance().publishAfterCommit(em, EntityChange.updated(Copy.class, copy.getId(), "status"),
+                    EntityChange.updated(Book.class, copy.getBook().getId(), "copies"));
+            return updated;
+        });
+    }
+
+    private boolean isValidStatusTransition(String currentStatus, String newStatus) {
+        // Define valid status transitions
+        switch (currentStatus) {
+            case "Available":
+                return newStatus.equals("Borrowed") || newStatus.equals("Withdrawn");
+            case "Borrowed":
+                return newStatus.equals("Available");
+            case "Withdrawn":
+                return newStatus.equals("Available");
+            default:
+                return false;
+        }
+    }
+    /**
+     * Counts total number of copies for a book
+     * @param book The book to count copies for
+     * @return Total number of copies
+     */
+    public Long countAllCopies(Book book) {
+        return entityManagerProvider.call(em -> new CopyRepo(em).countAllCopies(book));
+    }
+
+    /**
+     * Counts borrowed copies of a book
+     * @param book The book to count borrowed copies for
+     * @return Number of borrowed copies
+     */
+    public Long countBorrowedCopies(Book book) {
+        return entityManagerProvider.call(em -> new CopyRepo(em).countBorrowedCopies(book));
+    }
+
+    /**
+     * Counts the copies of a book in every status with a single query
+     * @param book The book to count copies for
+     * @return Number of copies per status
+     */
+    public EnumMap<CopyStatus, Long> countCopiesByStatus(Book book) {
+        return entityManagerProvider.call(em -> new CopyRepo(em).countCopiesByStatus(book));
+    }
+}
@@ -1,135 +1,255 @@
-package manager;
-
-import Repository.UserRepo;
-import jakarta.persistence.EntityManager;
-import table.User;
-
-import java.util.Date;
-import java.util.List;
-import java.util.Optional;
-
-/**
- * Service class for managing user-related operations.
- */
-public class ManageUser {
-
-    private final UserRepo userRepo;
-    private final ManageLibrarian manageLibrarian;
-
-    /**
-     * Constructor for injecting dependencies.
-     *
-     * @param entityManager The EntityManager for database operations.
-     */
-    public ManageUser(EntityManager entityManager) {
-        this.userRepo = new UserRepo(entityManager);
-        this.manageLibrarian = new ManageLibrarian(entityManager);
-    }
-
-    /**
-     * Registers a new user.
-     *
-     * @param user The user to create.
-     * @return The created user.
-     * @throws Exception If the user's email already exists.
-     */
-    public User registerUser(User user) throws Exception {
-        if (userRepo.existsByEmail(user.getEmail())) {
-            throw new Exception("Email already exists: " + user.getEmail());
-        }
-        return userRepo.save(user);
-    }
-
-    /**
-     * Updates an existing user's information.
-     *
-     * @param user The user to update.
-     * @return The updated user.
-     * @throws Exception If the user is not found or the email is already in use by another user.
-     */
-    public User updateUserDetails(User user) throws Exception {
-        if (userRepo.findById(user.getId()).isEmpty()) {
-            throw new Exception("User not found with id: " + user.getId());
-        }
-
-        Optional<User> existingUser = userRepo.findByEmail(user.getEmail());
-        if (existingUser.isPresent() && !existingUser.get().getId().equals(user.getId())) {
-            throw new Exception("Email already exists: " + user.getEmail());
-        }
-
-        return userRepo.update(user);
-    }
-
-    /**
-     * Removes a user by their ID.
-     *
-     * @param userId The ID of the user to delete.
-     * @throws Exception If the user does not exist or has active borrowings.
-     */
-    public void removeUserById(Integer userId) throws Exception {
-        Optional<User> user = userRepo.findById(userId);
-        if (user.isEmpty()) {
-            throw new Exception("User not found with id: " + userId);
-        }
-
-        if (!user.get().getBorrowings().isEmpty()) {
-            throw new Exception("Cannot delete user with active borrowings.");
-        }
-
-        userRepo.deleteById(userId);
-    }
-
-    /**
-     * Finds a user by their ID.
-     *
-     * @param userId The ID of the user.
-     * @return An Optional containing the user if found.
-     */
-    public Optional<User> findUserById(Integer userId) {
-        return userRepo.findById(userId);
-    }
-
-    /**
-     * Finds a user by their email address.
-     *
-     * @param email The email address of the user.
-     * @return An Optional containing the user if found.
-     */
-    public Optional<User> findUserByEmail(String email) {
-        return userRepo.findByEmail(email);
-    }
-
-    /**
-     * Retrieves all users.
-     *
-     * @return A list of all users.
-     */
-    public List<User> retrieveAllUsers() {
-        return userRepo.findAll();
-    }
-
-    /**
-     * Promotes a user to the librarian role.
-     *
-     * @param userId   The ID of the user to promote.
-     * @param isSenior Whether the user should be promoted to a senior librarian.
-     * @throws Exception If the user does not exist or is already a librarian.
-     */
-    public void promoteUserToLibrarian(Integer userId, boolean isSenior) throws Exception {
-        Optional<User> userOpt = userRepo.findById(userId);
-        if (userOpt.isEmpty()) {
-            throw new Exception("User not found with id: " + userId);
-        }
-
-        User user = userOpt.get();
-        if (manageLibrarian.isLibrarian(user)) {
-            throw new Exception("User is already a librarian.");
-        }
-
-        String role = isSenior
-                ? LibraryConfigLoader.getSeniorLibrarianRole()
-                : LibraryConfigLoader.getLibrarianRole();
-
-        manageLibrarian.createLibrarian(user, new Date(), role);
-    }
-}
+package manager;
+
+import Repository.BorrowingRepo;
+import Repository.ChangeStamp;
+import Repository.IdSet;
+import Repository.LibrarianRepo;
+import Repository.UserRepo;
+import Repository.UserSummary;
+import table.User;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Service class for managing user-related operations.
+ */
+public class ManageUser {
+
+    private final EntityManagerProvider entityManagerProvider;
+    private final ManageLibrarian manageLibrarian;
+
+    /**
+     * Constructor for injecting dependencies.
+     *
+     * @param entityManagerProvider The provider of EntityManagers for database operations.
+     */
+    public ManageUser(EntityManagerProvider entityManagerProvider) {
+        this.entityManagerProvider = entityManagerProvider;
+        this.manageLibrarian = new ManageLibrarian(entityManagerProvider);
+    }
+
+    /**
+     * Registers a new user.
+     *
+     * @param user The user to create.
+     * @return The created user.
+     * @throws Exception If the user's email already exists.
+     */
+    public User registerUser(User user) throws Exception {
+        User registered = entityManagerProvider.call(em -> {
+            UserRepo userRepo = new UserRepo(em);
+            if (userRepo.existsByEmail(user.getEmail())) {
+                throw new Exception("Email already exists: " + user.getEmail());
+            }
+            return userRepo.save(user);
+        });
+        PrefixIndex.userEmails().put(registered.getId(), registered.getEmail());
+        return registered;
+    }
+
+    /**
+     * Updates an existing user's information.
+     *
+     * @param user The user to update.
+     * @return The updated user.
+     * @throws Exception If the user is not found or the email is already in use by another user.
+     */
+    public User updateUserDetails(User user) throws Exception {
+        User updated = entityManagerProvider.call(em -> {
+            UserRepo userRepo = new UserRepo(em);
+            if (userRepo.findById(user.getId()).isEmpty()) {
+                throw new Exception("User not found with id: " + user.getId());
+            }
+
+            Optional<User> existingUser = userRepo.findByEmail(user.getEmail());
+            if (existingUser.isPresent() && !existingUser.get().getId().equals(user.getId())) {
+                throw new Exception("Email already exists: " + user.getEmail());
+            }
+
+            return userRepo.update(user);
+        });
+        PrefixIndex.userEmails().put(updated.getId(), updated.getEmail());
+        return updated;
+    }
+
+    /**
+     * Removes a user by their ID.
+     *
+     * @param userId The ID of the user to delete.
+     * @throws Exception If the user does not exist or has active borrowings.
+     */
+    public void removeUserById(Integer userId) throws Exception {
+        entityManagerProvider.call(em -> {
+            UserRepo userRepo = new UserRepo(em);
+            Optional<User> user = userRepo.findById(userId);
+            if (user.isEmpty()) {
+                throw new Exception("User not found with id: " + userId);
+            }
+
+            // An index seek answers this without loading the user's borrowing history
+            if (new BorrowingRepo(em).existsByUser(userId)) {
+                throw new Exception("Cannot delete user with active borrowings.");
+            }
+
+            return userRepo.deleteById(userId);
+        });
+        PrefixIndex.userEmails().remove(userId);
+    }
+
+    /**
+     * Finds a user by their ID.
+     *
+     * @param userId The ID of the user.
+     * @return An Optional containing the user if found.
+     */
+    public Optional<User> findUserById(Integer userId) {
+        return entityManagerProvider.call(em -> new UserRepo(em).findById(userId));
+    }
+
+    /**
+     * Finds a user by their email address.
+     *
+     * @param email The email address of the user.
+     * @return An Optional containing the user if found.
+     */
+    public Optional<User> findUserByEmail(String email) {
+        return entityManagerProvider.call(em -> new UserRepo(em).findByEmail(email));
+    }
+
+    /**
+     * Retrieves all users.
+     *
+     * @return A list of all users.
+     */
+    public List<User> retrieveAllUsers() {
+        return entityManagerProvider.call(em -> new UserRepo(em).findAll());
+    }
+
+    /**
+     * Retrieves a summary of every user for listings, including whether each user is a librarian.
+     *
+     * @return A list of user summaries ordered by ID.
+     */
+    public List<UserSummary> retrieveUserSummaries() {
+        return entityManagerProvider.call(em -> new UserRepo(em).findSummaries());
+    }
+
+    /**
+     * Retrieves the summaries of the users modified after the given time, for refreshing a listing.
+     *
+     * @param since The time of the previous refresh.
+     * @return A list of summaries of the modified users ordered by ID.
+     */
+    public List<UserSummary> retrieveUserSummariesModifiedSince(Date since) {
+        return entityManagerProvider.call(em -> new UserRepo(em).findSummariesModifiedSince(since));
+    }
+
+    /**
+     * Retrieves the summary of one user, for refreshing its row in a listing.
+     *
+     * @param userId The ID of the user.
+     * @return An Optional containing the summary if the user exists.
+     */
+    public Optional<UserSummary> retrieveUserSummary(Integer userId) {
+        return entityManagerProvider.call(em -> new UserRepo(em).findSummaryById(userId));
+    }
+
+    /**
+     * Retrieves the IDs of all users, for finding the users deleted since a listing was loaded.
+     *
+     * @return The set of user IDs.
+     */
+    public IdSet retrieveUserIds() {
+        return entityManagerProvider.call(em -> new UserRepo(em).findIds());
+    }
+
+    /**
+     * Gets the change stamp of the users table.
+     *
+     * @return The change stamp; an equal stamp means no user was added, modified or deleted.
+     */
+    public ChangeStamp getUserChangeStamp() {
+        return entityManagerProvider.call(em -> new UserRepo(em).getChangeStamp());
+    }
+
+    /**
+     * Recomputes the loan counters of every user from the borrowings, repairing counters that drifted,
+     * for example after borrowings were edited directly in the database.
+     *
+     * @return The number of users whose counters were recomputed.
+     */
+    public int repairLoanCounters() {
+        return entityManagerProvider.call(em -> new UserRepo(em).recomputeLoanCounters());
+    }
+
+    /**
+     * Retrieves the IDs of all librarians' user accounts in one query,
+     * for checking the role of many users without a query per user.
+     *
+     * @return The set of librarian user IDs.
+     */
+    public IdSet retrieveLibrarianUserIds() {
+        return entityManagerProvider.call(em -> new LibrarianRepo(em).findLibrarianUserIds());
+    }
+
+    /**
+     * Completes a typed prefix to the users whose email starts with it.
+     *
+     * @param prefix The typed beginning of an email address.
+     * @param limit  The maximum number of users to return.
+     * @return A list of matching users ordered by email.
+     */
+    public List<User> completeUsersByEmail(String prefix, int limit) {
+        List<Integer> userIds = PrefixIndex.userEmails().complete(prefix, limit);
+        return userIds.isEmpty() ? Collections.emptyList() :
+                entityManagerProvider.call(em -> new UserRepo(em).findByIds(userIds));
+    }
+
+    /**
+     * Loads the email of every user into the shared email prefix index.
+     */
+    public void rebuildEmailIndex() {
+        Map<Integer, String> emails = new HashMap<>();
+        entityManagerProvider.call(em -> {
+            try (Stream<User> users = new UserRepo(em).streamAll()) {
+                users.forEach(user -> emails.put(user.getId(), user.getEmail()));
+            }
+            return null;
+        });
+        PrefixIndex.userEmails().replaceAll(emails);
+    }
+
+    /**
+     * Promotes a user to the librarian role.
+     *
+     * @param userId   The ID of the user to promote.
+     * @param isSenior Whether the user should be promoted to a senior librarian.
+     * @throws Exception If the user does not exist or is already a librarian.
+     */
+    public void promoteUserToLibrarian(Integer userId, boolean isSenior) throws Exception {
+        // One unit of work, so the check and the promotion share a persistence context
+        entityManagerProvider.call(em -> {
+            Optional<User> userOpt = new UserRepo(em).findById(userId);
+            if (userOpt.isEmpty()) {
+                throw new Exception("User not found with id: " + userId);
+            }
+
+            User user = userOpt.get();
+            if (manageLibrarian.isLibrarian(user)) {
+                throw new Exception("User is already a librarian.");
+            }
+
+            String role = isSenior
+                    ? LibraryConfigLoader.getSeniorLibrarianRole()
+                    : LibraryConfigLoader.getLibrarianRole();
+
+            return manageLibrarian.createLibrarian(user, new Date(), role);
+        });
+    }
+}
@@ -0,0 +1,158 @@
+package manager;
+
+import jakarta.persistence.EntityManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * One versioned step of the database schema, applied once by the {@link MigrationRunner}.
+ * The checksum of an applied migration is recorded, so a migration edited after it ran is detected.
+ */
+public interface Migration {
+
+    /**
+     * @return the version of the schema after this migration; migrations run in ascending version order.
+     */
+    int getVersion();
+
+    /**
+     * @return a short description recorded in the migration history.
+     */
+    String getDescription();
+
+    /**
+     * @return a checksum of the migration's content.
+     */
+    long getChecksum();
+
+    /**
+     * Applies the migration inside the transaction opened by the runner.
+     *
+     * @param entityManager The EntityManager for database operations.
+     * @throws Exception if the migration fails; the runner then stops without recording it.
+     */
+    void migrate(EntityManager entityManager) throws Exception;
+
+    /**
+     * Creates a migration that runs the SQL statements of a classpath resource.
+     * Statements end with a semicolon at the end of a line; lines starting with {@code --} are comments.
+     *
+     * @param version The version of the migration.
+     * @param description The description of the migration.
+     * @param resource The classpath location of the SQL script.
+     * @return the migration.
+     */
+    static Migration sql(int version, String description, String resource) {
+        String script = readResource(resource);
+        List<String> statements = splitStatements(script);
+        return new Migration() {
+            @Override
+            public int getVersion() {
+                return version;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+
+            @Override
+            public long getChecksum() {
+                return checksum(String.join("\n", statements));
+            }
+
+            @Override
+            public void migrate(EntityManager entityManager) {
+                for (String statement : statements) {
+                    entityManager.createNativeQuery(statement).executeUpdate();
+                }
+            }
+        };
+    }
+
+    /**
+     * Creates a migration implemented in Java, for data changes that are awkward to express in SQL.
+     * Its checksum covers only the version and description, so change the description when changing the code.
+     *
+     * @param version The version of the migration.
+     * @param description The description of the migration.
+     * @param action The work to perform.
+     * @return the migration.
+     */
+    static Migration java(int version, String description, Action action) {
+        return new Migration() {
+            @Override
+            public int getVersion() {
+                return version;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+
+            @Override
+            public long getChecksum() {
+                return checksum(version + ":" + description);
+            }
+
+            @Override
+            public void migrate(EntityManager entityManager) throws Exception {
+                action.migrate(entityManager);
+            }
+        };
+    }
+
+    /**
+     * The body of a Java migration.
+     */
+    interface Action {
+        void migrate(EntityManager entityManager) throws Exception;
+    }
+
+    private static String readResource(String resource) {
+        try (InputStream input = Migration.class.getClassLoader().getResourceAsStream(resource)) {
+            if (input == null) {
+                throw new RuntimeException("Unable to find migration script " + resource);
+            }
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading migration script " + resource, e);
+        }
+    }
+
+    private static List<String> splitStatements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : script.split("\r?\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            if (current.length() > 0) {
+                current.append('\n');
+            }
+            current.append(trimmed);
+            if (trimmed.endsWith(";")) {
+                current.setLength(current.length() - 1);
+                statements.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (current.length() > 0) {
+            statements.add(current.toString());
+        }
+        return statements;
+    }
+
+    private static long checksum(String content) {
+        CRC32 crc = new CRC32();
+        crc.update(content.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+}
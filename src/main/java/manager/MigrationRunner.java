@@ -0,0 +1,147 @@
+package manager;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Brings the database schema up to the latest version by applying the pending {@link Migration}s in order.
+ * Applied migrations are recorded in the {@code schema_history} table together with their checksum. Once the
+ * database is current, startup costs a single read of that table instead of a comparison of the whole schema.
+ */
+public class MigrationRunner {
+    private static final String HISTORY_TABLE = "schema_history";
+
+    private final EntityManager entityManager;
+    private final List<Migration> migrations;
+
+    /**
+     * Constructor for initializing the MigrationRunner with the library's migrations.
+     *
+     * @param entityManager The EntityManager for database operations.
+     */
+    public MigrationRunner(EntityManager entityManager) {
+        this(entityManager, libraryMigrations());
+    }
+
+    /**
+     * Constructor for initializing the MigrationRunner with a custom list of migrations.
+     *
+     * @param entityManager The EntityManager for database operations.
+     * @param migrations The migrations to apply, in any order.
+     */
+    public MigrationRunner(EntityManager entityManager, List<Migration> migrations) {
+        this.entityManager = entityManager;
+        this.migrations = migrations.stream()
+                .sorted(Comparator.comparingInt(Migration::getVersion))
+                .toList();
+    }
+
+    /**
+     * The migrations of the library schema. Append new migrations with the next version number;
+     * never edit or reorder one that has been released.
+     *
+     * @return the migrations in version order.
+     */
+    public static List<Migration> libraryMigrations() {
+        return List.of(
+                Migration.sql(1, "baseline schema", "db/migration/V1__baseline_schema.sql"),
+                Migration.sql(2, "query indexes", "db/migration/V2__query_indexes.sql"),
+                Migration.java(3, "align id sequences past existing ids",
+                        em -> new SequenceAligner(em).alignSequences()),
+                Migration.sql(4, "user loan counters", "db/migration/V4__user_loan_counters.sql"),
+                Migration.sql(5, "last-modified timestamps", "db/migration/V5__last_modified_timestamps.sql")
+        );
+    }
+
+    /**
+     * Applies every migration newer than the recorded schema version, each in its own transaction.
+     *
+     * @return the number of migrations applied.
+     * @throws IllegalStateException if an applied migration has changed since it ran, or a migration fails.
+     */
+    public int migrate() {
+        ensureHistoryTable();
+        Map<Integer, Long> applied = readHistory();
+
+        int count = 0;
+        for (Migration migration : migrations) {
+            Long checksum = applied.get(migration.getVersion());
+            if (checksum != null) {
+                if (checksum != migration.getChecksum()) {
+                    throw new IllegalStateException("Migration " + migration.getVersion() + " (" +
+                            migration.getDescription() + ") has changed since it was applied");
+                }
+                continue;
+            }
+            apply(migration);
+            count++;
+        }
+        if (count > 0) {
+            System.out.println("Applied " + count + " schema migration(s), schema is at version " + getLatestVersion());
+        }
+        return count;
+    }
+
+    /**
+     * @return the version of the newest known migration, or 0 if there are none.
+     */
+    public int getLatestVersion() {
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).getVersion();
+    }
+
+    private void apply(Migration migration) {
+        EntityTransaction transaction = entityManager.getTransaction();
+        long start = System.currentTimeMillis();
+        try {
+            transaction.begin();
+            migration.migrate(entityManager);
+            entityManager.createNativeQuery(
+                            "INSERT INTO " + HISTORY_TABLE +
+                                    " (version, description, checksum, installed_on, execution_ms) " +
+                                    "VALUES (?1, ?2, ?3, CURRENT_TIMESTAMP, ?4)")
+                    .setParameter(1, migration.getVersion())
+                    .setParameter(2, migration.getDescription())
+                    .setParameter(3, migration.getChecksum())
+                    .setParameter(4, System.currentTimeMillis() - start)
+                    .executeUpdate();
+            transaction.commit();
+        } catch (Exception e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw new IllegalStateException("Migration " + migration.getVersion() + " (" +
+                    migration.getDescription() + ") failed: " + e.getMessage(), e);
+        }
+    }
+
+    private void ensureHistoryTable() {
+        EntityTransaction transaction = entityManager.getTransaction();
+        transaction.begin();
+        entityManager.createNativeQuery(
+                        "CREATE TABLE IF NOT EXISTS " + HISTORY_TABLE + " (" +
+                                "version INTEGER NOT NULL PRIMARY KEY, " +
+                                "description VARCHAR(255) NOT NULL, " +
+                                "checksum BIGINT NOT NULL, " +
+                                "installed_on TIMESTAMP NOT NULL, " +
+                                "execution_ms BIGINT NOT NULL)")
+                .executeUpdate();
+        transaction.commit();
+    }
+
+    private Map<Integer, Long> readHistory() {
+        Map<Integer, Long> applied = new HashMap<>();
+        List<?> rows = entityManager.createNativeQuery(
+                        "SELECT version, checksum FROM " + HISTORY_TABLE)
+                .getResultList();
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            applied.put(((Number) columns[0]).intValue(), ((Number) columns[1]).longValue());
+        }
+        return applied;
+    }
+}
@@ -0,0 +1,140 @@
+package manager;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects acquisition, timeout and leak statistics for the database connection pool.
+ * The pool reports into the single shared instance, which can be read from anywhere via {@link #getInstance()}.
+ */
+public class PoolMetrics implements MetricsTrackerFactory, IMetricsTracker {
+    private static final PoolMetrics INSTANCE = new PoolMetrics();
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final LongAccumulator maxAcquireNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder leakSuspects = new LongAdder();
+    private volatile long leakThresholdMillis;
+    private volatile PoolStats poolStats;
+
+    private PoolMetrics() {}
+
+    /**
+     * Gets the metrics shared by the connection pool.
+     *
+     * @return the shared metrics instance.
+     */
+    public static PoolMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Sets how long a connection may be held before its release is counted as a suspected leak.
+     *
+     * @param leakThresholdMillis the threshold in milliseconds, or 0 to disable leak counting.
+     */
+    void setLeakThresholdMillis(long leakThresholdMillis) {
+        this.leakThresholdMillis = leakThresholdMillis;
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        return this;
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        acquired.increment();
+        acquireNanos.add(elapsedAcquiredNanos);
+        maxAcquireNanos.accumulate(elapsedAcquiredNanos);
+    }
+
+    @Override
+    public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+        long threshold = leakThresholdMillis;
+        if (threshold > 0 && elapsedBorrowedMillis >= threshold) {
+            leakSuspects.increment();
+            System.err.println("Connection was held for " + elapsedBorrowedMillis + " ms, possible connection leak");
+        }
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+        timeouts.increment();
+    }
+
+    /**
+     * @return the number of connections handed out by the pool.
+     */
+    public long getConnectionsAcquired() {
+        return acquired.sum();
+    }
+
+    /**
+     * @return the average time spent waiting for a connection, in milliseconds.
+     */
+    public double getAverageAcquireMillis() {
+        long count = acquired.sum();
+        return count == 0 ? 0 : acquireNanos.sum() / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return the longest time spent waiting for a connection, in milliseconds.
+     */
+    public double getMaxAcquireMillis() {
+        return maxAcquireNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return the number of requests that gave up waiting for a connection.
+     */
+    public long getAcquireTimeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * @return the number of connections that were held longer than the leak detection threshold.
+     */
+    public long getLeakSuspects() {
+        return leakSuspects.sum();
+    }
+
+    /**
+     * @return the number of connections currently in use, or 0 if the pool has not started.
+     */
+    public int getActiveConnections() {
+        PoolStats stats = poolStats;
+        return stats == null ? 0 : stats.getActiveConnections();
+    }
+
+    /**
+     * @return the number of idle connections in the pool, or 0 if the pool has not started.
+     */
+    public int getIdleConnections() {
+        PoolStats stats = poolStats;
+        return stats == null ? 0 : stats.getIdleConnections();
+    }
+
+    /**
+     * @return the number of threads waiting for a connection, or 0 if the pool has not started.
+     */
+    public int getPendingThreads() {
+        PoolStats stats = poolStats;
+        return stats == null ? 0 : stats.getPendingThreads();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("acquired=%d, avgAcquire=%.3fms, maxAcquire=%.3fms, timeouts=%d, leakSuspects=%d, " +
+                        "active=%d, idle=%d, pending=%d",
+                getConnectionsAcquired(), getAverageAcquireMillis(), getMaxAcquireMillis(), getAcquireTimeouts(),
+                getLeakSuspects(), getActiveConnections(), getIdleConnections(), getPendingThreads());
+    }
+}
@@ -0,0 +1,122 @@
+package manager;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.SQLExceptionOverride;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.service.UnknownUnwrapTypeException;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.Stoppable;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Hibernate {@link ConnectionProvider} backed by a HikariCP pool.
+ * The JDBC URL and credentials come from the persistence unit; pool sizing, timeouts,
+ * leak detection and the H2 statement cache are configured through {@link LibraryConfigLoader}.
+ * Pool statistics are reported to {@link PoolMetrics}.
+ */
+public class PooledConnectionProvider implements ConnectionProvider, Configurable, Stoppable {
+    private HikariDataSource dataSource;
+
+    @Override
+    public void configure(Map<String, Object> configurationValues) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("LibraryPool");
+        config.setJdbcUrl(withStatementCache(setting(configurationValues, AvailableSettings.JAKARTA_JDBC_URL)));
+        config.setUsername(setting(configurationValues, AvailableSettings.JAKARTA_JDBC_USER));
+        config.setPassword(setting(configurationValues, AvailableSettings.JAKARTA_JDBC_PASSWORD));
+        String driver = setting(configurationValues, AvailableSettings.JAKARTA_JDBC_DRIVER);
+        if (driver != null) {
+            config.setDriverClassName(driver);
+        }
+
+        config.setMinimumIdle(LibraryConfigLoader.getPoolMinIdle());
+        config.setMaximumPoolSize(LibraryConfigLoader.getPoolMaxSize());
+        config.setConnectionTimeout(LibraryConfigLoader.getPoolConnectionTimeoutMillis());
+        config.setLeakDetectionThreshold(LibraryConfigLoader.getPoolLeakDetectionThresholdMillis());
+        config.setAutoCommit(false);
+        config.setExceptionOverrideClassName(CancelledStatementOverride.class.getName());
+
+        PoolMetrics metrics = PoolMetrics.getInstance();
+        metrics.setLeakThresholdMillis(LibraryConfigLoader.getPoolLeakDetectionThresholdMillis());
+        config.setMetricsTrackerFactory(metrics);
+
+        dataSource = new HikariDataSource(config);
+    }
+
+    /**
+     * Appends the H2 per-connection statement cache size to the URL unless the URL already sets one.
+     */
+    private String withStatementCache(String url) {
+        if (url == null || !url.startsWith("jdbc:h2:") || url.toUpperCase().contains("QUERY_CACHE_SIZE")) {
+            return url;
+        }
+        return url + ";QUERY_CACHE_SIZE=" + LibraryConfigLoader.getStatementCacheSize();
+    }
+
+    /**
+     * Keeps a connection in the pool when its statement was cancelled on purpose, as the windows do with queries
+     * whose results are no longer wanted; HikariCP would otherwise evict the connection as broken.
+     */
+    public static class CancelledStatementOverride implements SQLExceptionOverride {
+        private static final String QUERY_CANCELLED = "57014";
+
+        // Not annotated, since the inherited Override enum hides java.lang.Override here
+        public SQLExceptionOverride.Override adjudicate(SQLException e) {
+            return QUERY_CANCELLED.equals(e.getSQLState()) ? SQLExceptionOverride.Override.DO_NOT_EVICT
+                    : SQLExceptionOverride.Override.CONTINUE_EVICT;
+        }
+    }
+
+    private String setting(Map<String, Object> configurationValues, String key) {
+        Object value = configurationValues.get(key);
+        return value == null ? null : value.toString();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return dataSource.getConnection();
+    }
+
+    @Override
+    public void closeConnection(Connection connection) throws SQLException {
+        connection.close();
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return false;
+    }
+
+    @Override
+    public boolean isUnwrappableAs(Class<?> unwrapType) {
+        return ConnectionProvider.class.equals(unwrapType)
+                || PooledConnectionProvider.class.isAssignableFrom(unwrapType)
+                || DataSource.class.isAssignableFrom(unwrapType);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (ConnectionProvider.class.equals(unwrapType)
+                || PooledConnectionProvider.class.isAssignableFrom(unwrapType)) {
+            return (T) this;
+        }
+        if (DataSource.class.isAssignableFrom(unwrapType)) {
+            return (T) dataSource;
+        }
+        throw new UnknownUnwrapTypeException(unwrapType);
+    }
+
+    @Override
+    public void stop() {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+}
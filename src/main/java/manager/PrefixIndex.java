@@ -0,0 +1,207 @@
+package manager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Sorted-array prefix index mapping lower-cased keys, such as book titles or user emails, to entity IDs.
+ * Keys and IDs are held in two parallel arrays ordered by key, so the completions of a prefix are found by one
+ * binary search followed by a short forward scan, and the index costs little more memory than the keys themselves.
+ * The shared instances for book titles, book authors and user emails are kept current by the services.
+ */
+public class PrefixIndex {
+    private static final PrefixIndex BOOK_TITLES = new PrefixIndex();
+    private static final PrefixIndex BOOK_AUTHORS = new PrefixIndex();
+    private static final PrefixIndex USER_EMAILS = new PrefixIndex();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, String> keysById = new HashMap<>();
+    private String[] keys = new String[16];
+    private int[] ids = new int[16];
+    private int size = 0;
+
+    private PrefixIndex() {}
+
+    /**
+     * @return the index of book titles, mapping to book IDs.
+     */
+    public static PrefixIndex bookTitles() {
+        return BOOK_TITLES;
+    }
+
+    /**
+     * @return the index of book authors, mapping to book IDs.
+     */
+    public static PrefixIndex bookAuthors() {
+        return BOOK_AUTHORS;
+    }
+
+    /**
+     * @return the index of user emails, mapping to user IDs.
+     */
+    public static PrefixIndex userEmails() {
+        return USER_EMAILS;
+    }
+
+    /**
+     * Replaces the whole contents of the index, sorting the entries once.
+     *
+     * @param entries the key of every entity, by entity ID; null keys are skipped.
+     */
+    public void replaceAll(Map<Integer, String> entries) {
+        List<Map.Entry<String, Integer>> sorted = new ArrayList<>(entries.size());
+        Map<Integer, String> normalized = new HashMap<>();
+        for (Map.Entry<Integer, String> entry : entries.entrySet()) {
+            String key = normalize(entry.getValue());
+            if (key != null && entry.getKey() != null) {
+                sorted.add(Map.entry(key, entry.getKey()));
+                normalized.put(entry.getKey(), key);
+            }
+        }
+        sorted.sort(Map.Entry.<String, Integer>comparingByKey().thenComparing(Map.Entry.comparingByValue()));
+
+        String[] newKeys = new String[Math.max(16, sorted.size())];
+        int[] newIds = new int[newKeys.length];
+        for (int i = 0; i < sorted.size(); i++) {
+            newKeys[i] = sorted.get(i).getKey();
+            newIds[i] = sorted.get(i).getValue();
+        }
+
+        lock.writeLock().lock();
+        try {
+            keysById.clear();
+            keysById.putAll(normalized);
+            keys = newKeys;
+            ids = newIds;
+            size = sorted.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sets the key of an entity, replacing its previous key.
+     *
+     * @param id the ID of the entity.
+     * @param key the new key, or null to remove the entity.
+     */
+    public void put(Integer id, String key) {
+        if (id == null) {
+            return;
+        }
+        String normalized = normalize(key);
+        lock.writeLock().lock();
+        try {
+            String previous = keysById.remove(id);
+            if (previous != null) {
+                removeAt(position(previous, id));
+            }
+            if (normalized != null) {
+                keysById.put(id, normalized);
+                insertAt(-position(normalized, id) - 1, normalized, id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes an entity from the index.
+     *
+     * @param id the ID of the entity.
+     */
+    public void remove(Integer id) {
+        put(id, null);
+    }
+
+    /**
+     * Finds the entities whose key starts with the prefix, ignoring case.
+     *
+     * @param prefix the typed prefix; an empty prefix matches every entity.
+     * @param limit the maximum number of completions.
+     * @return the IDs of the matching entities in key order.
+     */
+    public List<Integer> complete(String prefix, int limit) {
+        String normalized = prefix == null ? "" : prefix.trim().toLowerCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            int from = position(normalized, Integer.MIN_VALUE);
+            from = from < 0 ? -from - 1 : from;
+            List<Integer> matches = new ArrayList<>(Math.min(limit, size - from));
+            for (int i = from; i < size && matches.size() < limit && keys[i].startsWith(normalized); i++) {
+                matches.add(ids[i]);
+            }
+            return matches.isEmpty() ? Collections.emptyList() : matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of entities in the index.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int position(String key, int id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = keys[mid].compareTo(key);
+            if (cmp == 0) {
+                cmp = Integer.compare(ids[mid], id);
+            }
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void insertAt(int index, String key, int id) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        keys[index] = key;
+        ids[index] = id;
+        size++;
+    }
+
+    private void removeAt(int index) {
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        size--;
+        keys[size] = null;
+    }
+
+    private static String normalize(String key) {
+        if (key == null) {
+            return null;
+        }
+        String normalized = key.trim().toLowerCase(Locale.ROOT);
+        return normalized.isEmpty() ? null : normalized;
+    }
+}
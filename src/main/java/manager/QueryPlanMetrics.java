@@ -0,0 +1,77 @@
+package manager;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Reports how well the query plan cache of an {@link EntityManagerFactory} is working.
+ * A hit means a query was created from an already parsed plan; a miss means its JPQL had to be parsed.
+ * Once the named queries are warm, misses should only come from ad-hoc queries.
+ * Requires {@code hibernate.generate_statistics}; without it all counts stay at zero.
+ */
+public class QueryPlanMetrics {
+    private final Statistics statistics;
+
+    /**
+     * Constructor for initializing the QueryPlanMetrics.
+     *
+     * @param entityManagerFactory The factory whose query plan cache is reported.
+     */
+    public QueryPlanMetrics(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * @return whether Hibernate is collecting the statistics these metrics are read from.
+     */
+    public boolean isEnabled() {
+        return statistics.isStatisticsEnabled();
+    }
+
+    /**
+     * @return the number of queries created from a cached plan.
+     */
+    public long getPlanCacheHits() {
+        return statistics.getQueryPlanCacheHitCount();
+    }
+
+    /**
+     * @return the number of queries whose plan had to be built.
+     */
+    public long getPlanCacheMisses() {
+        return statistics.getQueryPlanCacheMissCount();
+    }
+
+    /**
+     * @return the share of queries served from the plan cache, between 0 and 1, or 0 if no query ran yet.
+     */
+    public double getPlanCacheHitRatio() {
+        long hits = getPlanCacheHits();
+        long total = hits + getPlanCacheMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * @return the number of queries executed since the factory was created.
+     */
+    public long getQueryExecutions() {
+        return statistics.getQueryExecutionCount();
+    }
+
+    /**
+     * @return the slowest query and its execution time, or {@code null} if no query ran yet.
+     */
+    public String getSlowestQuery() {
+        String query = statistics.getQueryExecutionMaxTimeQueryString();
+        return query == null ? null : query.trim() + " (" + statistics.getQueryExecutionMaxTime() + " ms)";
+    }
+
+    /**
+     * @return a one-line summary of the plan cache, for logging.
+     */
+    public String describe() {
+        return String.format("Query plans: %d hits, %d misses (%.1f%% hit ratio), %d queries executed",
+                getPlanCacheHits(), getPlanCacheMisses(), getPlanCacheHitRatio() * 100, getQueryExecutions());
+    }
+}
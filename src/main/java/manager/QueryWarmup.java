@@ -0,0 +1,78 @@
+package manager;
+
+import Repository.BookRepo;
+import Repository.BorrowingRepo;
+import Repository.CopyRepo;
+import Repository.LibrarianRepo;
+import Repository.PublisherRepo;
+import Repository.UserRepo;
+import jakarta.persistence.EntityManager;
+import table.Book;
+import table.User;
+
+import java.util.List;
+
+/**
+ * Runs each hot repository query once during startup, so that the query plans are compiled and cached and the
+ * code paths behind them are warm before the first user request. Queries are bounded to a single row or key,
+ * so the warmup stays cheap on a large catalog. Nothing is written.
+ */
+public class QueryWarmup {
+    private final EntityManager entityManager;
+
+    /**
+     * Constructor for initializing the QueryWarmup.
+     *
+     * @param entityManager The EntityManager for database operations.
+     */
+    public QueryWarmup(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Runs the hot queries once. Failures are reported and otherwise ignored, since warmup is only an optimization.
+     *
+     * @return the time the warmup took, in milliseconds.
+     */
+    public long warmUp() {
+        long start = System.currentTimeMillis();
+        try {
+            UserRepo userRepo = new UserRepo(entityManager);
+            BookRepo bookRepo = new BookRepo(entityManager);
+            CopyRepo copyRepo = new CopyRepo(entityManager);
+            BorrowingRepo borrowingRepo = new BorrowingRepo(entityManager);
+
+            // Login
+            User user = userRepo.findByEmail("user@library.com").orElse(null);
+            if (user != null) {
+                new LibrarianRepo(entityManager).isLibrarian(user);
+                userRepo.findByIds(List.of(user.getId()));
+                borrowingRepo.findUserCurrentBorrowings(user);
+                borrowingRepo.countUserCurrentBorrowings(user.getId());
+                borrowingRepo.findUserBorrowingHistory(user);
+            }
+            userRepo.existsByEmail("user@library.com");
+
+            // Catalog
+            List<Book> books = bookRepo.findPage(null, null, 1);
+            bookRepo.findAvailableBooksPage(null, null, 1);
+            bookRepo.findByTitlePage("a", null, null, 1);
+            if (!books.isEmpty()) {
+                Book book = books.get(0);
+                bookRepo.findSummariesByIds(List.of(book.getId()));
+                bookRepo.findByIsbn(book.getIsbn());
+                copyRepo.countCopiesByStatus(book);
+                copyRepo.countCopiesByStatus(List.of(book));
+                copyRepo.findAvailableCopies(book);
+            }
+            new PublisherRepo(entityManager).findAll();
+        } catch (Exception e) {
+            System.err.println("Error warming up queries: " + e.getMessage());
+        } finally {
+            entityManager.clear();
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        System.out.println("Query warmup finished in " + elapsed + " ms");
+        return elapsed;
+    }
+}
@@ -0,0 +1,85 @@
+package manager;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.metamodel.EntityType;
+
+import java.lang.reflect.Field;
+import java.util.List;
+
+/**
+ * Keeps the pooled id sequences of the entities ahead of the ids already stored in their tables.
+ * Rows written while the entities still used identity columns would otherwise collide with the
+ * first ids handed out by a freshly created sequence.
+ */
+public class SequenceAligner {
+    private final EntityManager entityManager;
+
+    /**
+     * Constructor for initializing the SequenceAligner.
+     *
+     * @param entityManager The EntityManager for database operations.
+     */
+    public SequenceAligner(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Restarts every entity sequence past the highest id currently stored in its table.
+     * Sequences that are already ahead are left alone. Joins the current transaction if one is active.
+     *
+     * @throws RuntimeException if a sequence cannot be aligned; a transaction begun here is rolled back first.
+     */
+    public void alignSequences() {
+        EntityTransaction transaction = entityManager.getTransaction();
+        boolean isActive = transaction.isActive();
+        try {
+            if (!isActive) {
+                transaction.begin();
+            }
+            for (EntityType<?> entityType : entityManager.getMetamodel().getEntities()) {
+                alignSequence(entityType.getJavaType());
+            }
+            if (!isActive) {
+                transaction.commit();
+            }
+        } catch (RuntimeException e) {
+            if (!isActive && transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        }
+    }
+
+    private void alignSequence(Class<?> entityClass) {
+        Table table = entityClass.getAnnotation(Table.class);
+        for (Field field : entityClass.getDeclaredFields()) {
+            SequenceGenerator generator = field.getAnnotation(SequenceGenerator.class);
+            if (table == null || generator == null || !field.isAnnotationPresent(Id.class)) {
+                continue;
+            }
+
+            Number maxId = (Number) entityManager.createNativeQuery(
+                    "SELECT COALESCE(MAX(" + field.getName() + "), 0) FROM " + table.name())
+                    .getSingleResult();
+            List<?> sequences = entityManager.createNativeQuery(
+                    "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES " +
+                            "WHERE UPPER(SEQUENCE_NAME) = UPPER(:name)")
+                    .setParameter("name", generator.sequenceName())
+                    .getResultList();
+            Number current = sequences.isEmpty() ? null : (Number) sequences.get(0);
+
+            // The pooled optimizer hands out the block ending at the value it reads,
+            // so the sequence has to sit a full allocation past the highest stored id.
+            long restartWith = maxId.longValue() + generator.allocationSize();
+            if (current != null && maxId.longValue() > 0 && current.longValue() < restartWith) {
+                entityManager.createNativeQuery(
+                        "ALTER SEQUENCE " + generator.sequenceName() + " RESTART WITH " + restartWith)
+                        .executeUpdate();
+            }
+        }
+    }
+}
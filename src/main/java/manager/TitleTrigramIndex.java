@@ -0,0 +1,296 @@
+package manager;
+
+import table.Book;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over normalized book titles, used for typo-tolerant title search.
+ * A title is lower-cased, stripped of accents and punctuation, and split into overlapping three-character
+ * sequences; each word is padded with two leading and one trailing space so word starts and ends carry weight.
+ * Similarity is the number of shared trigrams divided by the number of distinct trigrams of both titles.
+ * <p>
+ * A search counts, per book, how many of the query's trigrams list it, in a counter array indexed by book ID, which
+ * gives the shared trigram count of every book in one pass over the query's postings. Book IDs come from a sequence,
+ * so the arrays stay dense. Retitling or removing a book edits only the postings of the trigrams it gained or lost.
+ */
+public class TitleTrigramIndex {
+    private static final TitleTrigramIndex INSTANCE = new TitleTrigramIndex();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private long[][] trigramsByBook = new long[1024][];
+    private int bookCount = 0;
+    private volatile boolean built = false;
+
+    private TitleTrigramIndex() {}
+
+    /**
+     * Gets the index shared by all book services.
+     *
+     * @return the shared index instance.
+     */
+    public static TitleTrigramIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return true once the index has been filled from the database.
+     */
+    public boolean isBuilt() {
+        return built;
+    }
+
+    /**
+     * Removes all entries and marks the index as not built.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            trigramsByBook = new long[1024][];
+            bookCount = 0;
+            built = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Marks the index as complete, so searches are answered from it.
+     */
+    public void markBuilt() {
+        built = true;
+    }
+
+    /**
+     * Adds a book's title to the index, replacing the title indexed for it before.
+     *
+     * @param book the book to index; books without an ID are ignored.
+     */
+    public void index(Book book) {
+        if (book == null || book.getId() == null || book.getId() < 0) {
+            return;
+        }
+        int bookId = book.getId();
+        long[] trigrams = trigrams(book.getTitle());
+        lock.writeLock().lock();
+        try {
+            if (bookId >= trigramsByBook.length) {
+                trigramsByBook = Arrays.copyOf(trigramsByBook, Math.max(bookId + 1, trigramsByBook.length * 2));
+            }
+            long[] previous = trigramsByBook[bookId];
+            trigramsByBook[bookId] = trigrams;
+            if (previous == null) {
+                bookCount++;
+            } else {
+                for (long trigram : previous) {
+                    if (Arrays.binarySearch(trigrams, trigram) < 0) {
+                        removePosting(trigram, bookId);
+                    }
+                }
+            }
+            for (long trigram : trigrams) {
+                if (previous == null || Arrays.binarySearch(previous, trigram) < 0) {
+                    postings.computeIfAbsent(trigram, key -> new Postings()).add(bookId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a book from the index.
+     *
+     * @param bookId the ID of the book to remove.
+     */
+    public void remove(Integer bookId) {
+        lock.writeLock().lock();
+        try {
+            if (bookId != null && bookId >= 0 && bookId < trigramsByBook.length && trigramsByBook[bookId] != null) {
+                for (long trigram : trigramsByBook[bookId]) {
+                    removePosting(trigram, bookId);
+                }
+                trigramsByBook[bookId] = null;
+                bookCount--;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the titles most similar to the query.
+     *
+     * @param query the title as typed, possibly misspelled.
+     * @param threshold the minimum similarity between 0 and 1 a title needs to be returned.
+     * @param maxResults the maximum number of results.
+     * @return the IDs of the most similar books, most similar first.
+     */
+    public List<Integer> search(String query, double threshold, int maxResults) {
+        long[] queryTrigrams = trigrams(query);
+        if (queryTrigrams.length == 0 || maxResults <= 0) {
+            return Collections.emptyList();
+        }
+        // similarity >= threshold needs at least threshold * |query| shared trigrams, and a title
+        // with more than |query| / threshold trigrams cannot reach it
+        int minShared = Math.max(1, (int) Math.ceil(threshold * queryTrigrams.length));
+        int maxTitleTrigrams = threshold > 0 ? (int) Math.floor(queryTrigrams.length / threshold) : Integer.MAX_VALUE;
+
+        lock.readLock().lock();
+        try {
+            int[] counts = new int[trigramsByBook.length];
+            for (long trigram : queryTrigrams) {
+                Postings list = postings.get(trigram);
+                if (list != null) {
+                    for (int i = 0; i < list.size; i++) {
+                        counts[list.ids[i]]++;
+                    }
+                }
+            }
+
+            PriorityQueue<Match> best = new PriorityQueue<>();
+            for (int bookId = 0; bookId < counts.length; bookId++) {
+                int shared = counts[bookId];
+                if (shared < minShared) {
+                    continue;
+                }
+                int titleLength = trigramsByBook[bookId].length;
+                if (titleLength > maxTitleTrigrams) {
+                    continue;
+                }
+                double similarity = shared / (double) (queryTrigrams.length + titleLength - shared);
+                if (similarity >= threshold) {
+                    best.add(new Match(bookId, similarity));
+                    if (best.size() > maxResults) {
+                        best.poll();
+                    }
+                }
+            }
+
+            List<Match> ranked = new ArrayList<>(best);
+            ranked.sort(Collections.reverseOrder());
+            List<Integer> bookIds = new ArrayList<>(ranked.size());
+            for (Match match : ranked) {
+                bookIds.add(match.bookId);
+            }
+            return bookIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of books in the index.
+     */
+    public int getBookCount() {
+        lock.readLock().lock();
+        try {
+            return bookCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removePosting(long trigram, int bookId) {
+        Postings list = postings.get(trigram);
+        if (list != null && list.remove(bookId) && list.size == 0) {
+            postings.remove(trigram);
+        }
+    }
+
+    /**
+     * Splits a title into its distinct trigrams, each packed into a long, in ascending order.
+     */
+    private static long[] trigrams(String title) {
+        if (title == null) {
+            return new long[0];
+        }
+        String normalized = Normalizer.normalize(title, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+        Set<Long> trigrams = new HashSet<>();
+        for (String word : normalized.split("[^\\p{L}\\p{Nd}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2));
+            }
+        }
+        long[] sorted = new long[trigrams.size()];
+        int i = 0;
+        for (Long trigram : trigrams) {
+            sorted[i++] = trigram;
+        }
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * @return a one-line summary of the index size.
+     */
+    @Override
+    public String toString() {
+        lock.readLock().lock();
+        try {
+            return String.format("books=%d, trigrams=%d, built=%b", bookCount, postings.size(), built);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Book IDs listing one trigram, kept in ascending order so a search walks the counter array front to back.
+     */
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            int position = size == 0 || ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                position = -position - 1;
+            } else if (position < size) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+    }
+
+    private record Match(int bookId, double similarity) implements Comparable<Match> {
+        @Override
+        public int compareTo(Match other) {
+            int bySimilarity = Double.compare(similarity, other.similarity);
+            return bySimilarity != 0 ? bySimilarity : Integer.compare(other.bookId, bookId);
+        }
+    }
+}
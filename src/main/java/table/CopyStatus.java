@@ -0,0 +1,41 @@
+package table;
+
+/**
+ * Statuses a {@link Copy} can be in.
+ * The status is stored on the copy as its label, e.g. "Available".
+ */
+public enum CopyStatus {
+    AVAILABLE("Available"),
+    BORROWED("Borrowed"),
+    WITHDRAWN("Withdrawn");
+
+    private final String label;
+
+    CopyStatus(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Gets the label stored in the status column of a copy.
+     *
+     * @return the stored label.
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Finds the status matching a stored label.
+     *
+     * @param label the stored label.
+     * @return the matching status, or {@code null} if the label is unknown.
+     */
+    public static CopyStatus fromLabel(String label) {
+        for (CopyStatus status : values()) {
+            if (status.label.equals(label)) {
+                return status;
+            }
+        }
+        return null;
+    }
+}
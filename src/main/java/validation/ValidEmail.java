@@ -1,16 +1,16 @@
-package validation;
-
-import jakarta.validation.Constraint;
-import jakarta.validation.Payload;
-
-import java.lang.annotation.*;
-
-@Documented
-@Constraint(validatedBy = EmailValidator.class)
-@Target({ElementType.FIELD})
-@Retention(RetentionPolicy.RUNTIME)
-public @interface ValidEmail {
-    String message() default "Invalid email format";
-    Class<?>[] groups() default {};
-    Class<? extends Payload>[] payload() default {};
+package validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.*;
+
+@Documented
+@Constraint(validatedBy = EmailValidator.class)
+@Target({ElementType.FIELD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ValidEmail {
+    String message() default "Invalid email format";
+    Class<?>[] groups() default {};
+    Class<? extends Payload>[] payload() default {};
 }
\ No newline at end of file
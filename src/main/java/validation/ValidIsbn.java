@@ -1,17 +1,17 @@
-package validation;
-
-import jakarta.validation.Constraint;
-import jakarta.validation.Payload;
-
-import java.lang.annotation.*;
-
-@Documented
-@Constraint(validatedBy = IsbnValidator.class)
-@Target({ ElementType.FIELD, ElementType.METHOD, ElementType.PARAMETER })
-@Retention(RetentionPolicy.RUNTIME)
-public @interface ValidIsbn {
-    String message() default "Invalid ISBN format";
-    Class<?>[] groups() default {};
-    Class<? extends Payload>[] payload() default {};
-}
-
+package validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.*;
+
+@Documented
+@Constraint(validatedBy = IsbnValidator.class)
+@Target({ ElementType.FIELD, ElementType.METHOD, ElementType.PARAMETER })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ValidIsbn {
+    String message() default "Invalid ISBN format";
+    Class<?>[] groups() default {};
+    Class<? extends Payload>[] payload() default {};
+}
+
@@ -0,0 +1,79 @@
+-- Baseline schema. Written with IF NOT EXISTS so it also applies cleanly to databases
+-- that were created by hibernate.hbm2ddl.auto=update before migrations were introduced.
+
+CREATE SEQUENCE IF NOT EXISTS books_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS borrowings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS copies_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS librarians_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS publishers_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS publishers (
+    id INTEGER NOT NULL,
+    address VARCHAR(255),
+    name VARCHAR(255) NOT NULL,
+    phone_number VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id INTEGER NOT NULL,
+    address VARCHAR(255),
+    email VARCHAR(255) NOT NULL UNIQUE,
+    name VARCHAR(255) NOT NULL,
+    phone_number VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS books (
+    id INTEGER NOT NULL,
+    author VARCHAR(255),
+    isbn VARCHAR(255) NOT NULL UNIQUE,
+    publication_year INTEGER,
+    title VARCHAR(255) NOT NULL,
+    publisher_id INTEGER,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS copies (
+    id INTEGER NOT NULL,
+    copy_number INTEGER NOT NULL UNIQUE,
+    status VARCHAR(255) NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
+    book_id INTEGER NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS borrowings (
+    id INTEGER NOT NULL,
+    borrow_date DATE NOT NULL,
+    return_date DATE,
+    version BIGINT DEFAULT 0 NOT NULL,
+    copy_id INTEGER NOT NULL,
+    user_id INTEGER NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS librarians (
+    id INTEGER NOT NULL,
+    employment_date DATE NOT NULL,
+    position VARCHAR(255) NOT NULL,
+    user_id INTEGER NOT NULL UNIQUE,
+    PRIMARY KEY (id)
+);
+
+-- Databases created before optimistic locking lack the version columns
+ALTER TABLE copies ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE borrowings ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
+-- Constraint names match the ones Hibernate generated, so existing databases keep a single copy of each
+ALTER TABLE books ADD CONSTRAINT IF NOT EXISTS FKayy5edfrqnegqj3882nce6qo8
+    FOREIGN KEY (publisher_id) REFERENCES publishers;
+ALTER TABLE borrowings ADD CONSTRAINT IF NOT EXISTS FK7jjxsjy292xeolvlngowexpmu
+    FOREIGN KEY (copy_id) REFERENCES copies;
+ALTER TABLE borrowings ADD CONSTRAINT IF NOT EXISTS FKaexiaowfdka601ns4qv7pu0re
+    FOREIGN KEY (user_id) REFERENCES users;
+ALTER TABLE copies ADD CONSTRAINT IF NOT EXISTS FKic2xn1usf0mywohvy5thj1m3l
+    FOREIGN KEY (book_id) REFERENCES books;
+ALTER TABLE librarians ADD CONSTRAINT IF NOT EXISTS FK1mnjx3gunkf34mrd9wvskd2q6
+    FOREIGN KEY (user_id) REFERENCES users;
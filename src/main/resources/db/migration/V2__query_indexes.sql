@@ -0,0 +1,9 @@
+-- Indexes for the predicates and orderings used by the repositories
+
+CREATE INDEX IF NOT EXISTS idx_books_title_id ON books (title, id);
+CREATE INDEX IF NOT EXISTS idx_books_publisher ON books (publisher_id);
+CREATE INDEX IF NOT EXISTS idx_borrowings_user_return ON borrowings (user_id, return_date);
+CREATE INDEX IF NOT EXISTS idx_borrowings_user_borrow_date ON borrowings (user_id, borrow_date);
+CREATE INDEX IF NOT EXISTS idx_borrowings_return_date ON borrowings (return_date);
+CREATE INDEX IF NOT EXISTS idx_borrowings_copy ON borrowings (copy_id);
+CREATE INDEX IF NOT EXISTS idx_copies_book_status ON copies (book_id, status);
@@ -0,0 +1,10 @@
+-- Loan counters on users, kept current by ManageBorrowing so listings and checks need not load the borrowings
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS active_loans INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS lifetime_loans INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS last_borrow_date DATE;
+
+UPDATE users u SET
+    active_loans = (SELECT COUNT(*) FROM borrowings b WHERE b.user_id = u.id AND b.return_date IS NULL),
+    lifetime_loans = (SELECT COUNT(*) FROM borrowings b WHERE b.user_id = u.id),
+    last_borrow_date = (SELECT MAX(b.borrow_date) FROM borrowings b WHERE b.user_id = u.id);
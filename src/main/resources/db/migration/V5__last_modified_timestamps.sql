@@ -0,0 +1,11 @@
+-- Last-modified timestamps, so views can fetch only the rows changed since their previous refresh
+
+ALTER TABLE books ADD COLUMN IF NOT EXISTS last_modified TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL;
+ALTER TABLE copies ADD COLUMN IF NOT EXISTS last_modified TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS last_modified TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL;
+ALTER TABLE borrowings ADD COLUMN IF NOT EXISTS last_modified TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_books_last_modified ON books (last_modified);
+CREATE INDEX IF NOT EXISTS idx_copies_last_modified ON copies (last_modified);
+CREATE INDEX IF NOT EXISTS idx_users_last_modified ON users (last_modified);
+CREATE INDEX IF NOT EXISTS idx_borrowings_last_modified ON borrowings (last_modified);